@@ -2,8 +2,6 @@ package org.protege.editor.search.lucene;
 
 import org.protege.editor.owl.model.search.SearchCategory;
 
-import org.apache.lucene.document.Document;
-
 /**
  * Author: Josef Hardi <josef.hardi@stanford.edu><br>
  * Stanford University<br>
@@ -12,5 +10,9 @@ import org.apache.lucene.document.Document;
  */
 public abstract class AbstractDocumentHandler {
 
-    public abstract void handle(SearchCategory category, Document doc);
+    /**
+     * Handles a matching document. Only the document id is passed such that handlers
+     * can defer loading the stored fields until they are actually needed.
+     */
+    public abstract void handle(SearchCategory category, int docId);
 }
@@ -1,6 +1,15 @@
 package org.protege.editor.search.lucene;
 
+import org.protege.editor.search.lucene.analyzer.CasePreservingAnalyzer;
+import org.protege.editor.search.lucene.analyzer.EdgeNGramAnalyzer;
+import org.protege.editor.search.lucene.analyzer.IriAnalyzer;
+import org.protege.editor.search.lucene.analyzer.LabelAnalyzer;
+import org.protege.editor.search.lucene.analyzer.PhoneticAnalyzer;
+import org.protege.editor.search.lucene.analyzer.ReversedTokenAnalyzer;
+import org.protege.editor.search.lucene.analyzer.TrigramAnalyzer;
+
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -10,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -22,16 +33,31 @@ public abstract class AbstractLuceneIndexer extends OWLObjectVisitorAdapter {
 
     protected static final Logger logger = LoggerFactory.getLogger(AbstractLuceneIndexer.class);
 
-    private final Analyzer DEFAULT_ANALYZER = new StandardAnalyzer();
+    private final Analyzer DEFAULT_ANALYZER = createDefaultAnalyzer(new LabelAnalyzer());
+
+    private final Analyzer DEFAULT_QUERY_ANALYZER = createDefaultAnalyzer(LabelAnalyzer.createQueryAnalyzer());
 
     private final Analyzer textAnalyzer;
 
+    private final Analyzer queryAnalyzer;
+
     public AbstractLuceneIndexer() {
         textAnalyzer = DEFAULT_ANALYZER;
+        queryAnalyzer = DEFAULT_QUERY_ANALYZER;
     }
 
     public AbstractLuceneIndexer(Analyzer analyzer) {
-        textAnalyzer = analyzer;
+        this(analyzer, analyzer);
+    }
+
+    /**
+     * Creates an indexer whose search strings are analyzed differently than the indexed
+     * text, e.g., when the index analyzer produces extra tokens that the search strings
+     * should not be split into.
+     */
+    public AbstractLuceneIndexer(Analyzer analyzer, Analyzer queryAnalyzer) {
+        this.textAnalyzer = analyzer;
+        this.queryAnalyzer = queryAnalyzer;
     }
 
     public IndexWriterConfig getIndexWriterConfig() {
@@ -42,8 +68,40 @@ public abstract class AbstractLuceneIndexer extends OWLObjectVisitorAdapter {
         return textAnalyzer;
     }
 
+    public Analyzer getQueryAnalyzer() {
+        return queryAnalyzer;
+    }
+
     public abstract IndexItemsCollector getIndexItemsCollector();
 
+    /*
+     * The standard analyzer for the text fields, the given label analyzer for the display
+     * names and the annotation values, and specific analyzers for the companion fields that
+     * support faster search modes.
+     */
+    private static Analyzer createDefaultAnalyzer(LabelAnalyzer labelAnalyzer) {
+        Map<String, Analyzer> fieldAnalyzers = new HashMap<>();
+        fieldAnalyzers.put(IndexField.DISPLAY_NAME, labelAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_TEXT, labelAnalyzer);
+        EdgeNGramAnalyzer edgeNGramAnalyzer = new EdgeNGramAnalyzer();
+        fieldAnalyzers.put(IndexField.DISPLAY_NAME_PREFIX, edgeNGramAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_TEXT_PREFIX, edgeNGramAnalyzer);
+        ReversedTokenAnalyzer reversedTokenAnalyzer = new ReversedTokenAnalyzer();
+        fieldAnalyzers.put(IndexField.DISPLAY_NAME_REVERSED, reversedTokenAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_TEXT_REVERSED, reversedTokenAnalyzer);
+        TrigramAnalyzer trigramAnalyzer = new TrigramAnalyzer();
+        fieldAnalyzers.put(IndexField.DISPLAY_NAME_TRIGRAM, trigramAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_TEXT_TRIGRAM, trigramAnalyzer);
+        fieldAnalyzers.put(IndexField.PHONETIC_NAME, new PhoneticAnalyzer());
+        IriAnalyzer iriAnalyzer = new IriAnalyzer();
+        fieldAnalyzers.put(IndexField.ENTITY_IRI, iriAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_IRI, iriAnalyzer);
+        CasePreservingAnalyzer casePreservingAnalyzer = new CasePreservingAnalyzer();
+        fieldAnalyzers.put(IndexField.DISPLAY_NAME_CASED, casePreservingAnalyzer);
+        fieldAnalyzers.put(IndexField.ANNOTATION_TEXT_CASED, casePreservingAnalyzer);
+        return new PerFieldAnalyzerWrapper(new StandardAnalyzer(), fieldAnalyzers);
+    }
+
     public void doIndex(IndexDelegator delegator, SearchContext context, IndexProgressListener listener) throws IOException {
         IndexItemsCollector collector = getIndexItemsCollector();
         for (OWLOntology ontology : context.getOntologies()) {
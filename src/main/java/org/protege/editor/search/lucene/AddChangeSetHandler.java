@@ -9,9 +9,6 @@ import org.protege.editor.owl.ui.renderer.context.OWLObjectRenderingContext;
 import org.protege.editor.owl.ui.renderer.styledstring.OWLObjectStyledStringRenderer;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field.Store;
-import org.apache.lucene.document.StringField;
-import org.apache.lucene.document.TextField;
 import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
@@ -54,22 +51,27 @@ public class AddChangeSetHandler extends OWLOntologyChangeVisitorAdapter {
         OWLAxiom changeAxiom = change.getAxiom();
         if (changeAxiom instanceof OWLDeclarationAxiom) {
             OWLEntity entity = ((OWLDeclarationAxiom) changeAxiom).getEntity();
-            Document doc = new Document();
-            doc.add(new TextField(IndexField.ENTITY_IRI, getIri(entity), Store.YES));
-            doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(entity), Store.YES));
-            doc.add(new StringField(IndexField.ENTITY_TYPE, getType(entity), Store.YES));
+            Document doc = new IndexDocumentBuilder()
+                    .addEntityIri(getIri(entity))
+                    .addDisplayName(getDisplayName(entity))
+                    .addEntityType(getType(entity))
+                    .addDocKind(DocKind.ENTITY)
+                    .build();
             documents.add(doc);
         }
         else if (changeAxiom instanceof OWLAnnotationAssertionAxiom) {
             OWLAnnotationAssertionAxiom axiom = (OWLAnnotationAssertionAxiom) changeAxiom;
             if (axiom.getSubject() instanceof IRI) {
-                Document doc = new Document();
                 OWLEntity entity = getOWLEntity((IRI) axiom.getSubject());
-                doc.add(new TextField(IndexField.ENTITY_IRI, getIri(entity), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(entity), Store.YES));
-                doc.add(new TextField(IndexField.ANNOTATION_IRI, getIri(axiom.getProperty()), Store.YES));
-                doc.add(new TextField(IndexField.ANNOTATION_DISPLAY_NAME, getDisplayName(axiom.getProperty()), Store.YES));
-                doc.add(new TextField(IndexField.ANNOTATION_TEXT, getAnnotationText(axiom.getAnnotation()), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getIri(entity))
+                        .addSubjectDisplayName(getDisplayName(entity))
+                        .addEntityType(getType(entity))
+                        .addDocKind(DocKind.ANNOTATION)
+                        .addAnnotationIri(getIri(axiom.getProperty()))
+                        .addAnnotationDisplayName(getDisplayName(axiom.getProperty()))
+                        .addAnnotationText(getAnnotationText(axiom.getAnnotation()))
+                        .build();
                 documents.add(doc);
             }
         }
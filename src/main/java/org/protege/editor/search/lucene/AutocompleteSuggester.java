@@ -0,0 +1,390 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.base.Stopwatch;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Suggests entity names that complete a typed prefix, without running a search. The
+ * suggester holds an in-memory finite state transducer (FST) whose inputs are the sort
+ * keys of the entity display names (see {@link IndexField#DISPLAY_NAME_SORT}) followed by
+ * the entity IRIs, and whose outputs are the costs of the entries. A lookup walks the
+ * prefix in the FST and collects the top-N cheapest completions, i.e., the most popular
+ * ones, breaking ties alphabetically.
+ * <p>
+ * The FST is immutable, so the suggester is rebuilt from the doc values of the index
+ * after the index is updated or the recorded usage changes. Rebuilding reads no stored
+ * documents, but it walks every document of the index, hence a stale suggester is rebuilt
+ * at most once per {@link #MIN_REBUILD_INTERVAL} and it keeps serving the previous
+ * suggestions until then. The entry weights come from a {@link PopularitySignal}, by
+ * default the number of times an entity was picked from the suggestions.
+ */
+public class AutocompleteSuggester {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteSuggester.class);
+
+    private static final byte SEPARATOR = 0;
+
+    private static final long MAX_WEIGHT = Integer.MAX_VALUE;
+
+    /**
+     * The minimum time between two rebuilds of a suggester that was already built, in
+     * milliseconds
+     */
+    public static final long MIN_REBUILD_INTERVAL = 10000;
+
+    private static final Comparator<Long> COST_COMPARATOR = (c1, c2) -> c1.compareTo(c2);
+
+    private final Map<String, Long> usageCounts = new ConcurrentHashMap<>();
+
+    private final PopularitySignal popularitySignal;
+
+    private volatile FST<Long> fst;
+
+    private volatile int entryCount = 0;
+
+    private volatile long readerVersion = -1;
+
+    private final AtomicLong usageVersion = new AtomicLong(0);
+
+    private volatile long builtUsageVersion = 0;
+
+    private volatile boolean invalidated = false;
+
+    private volatile long lastBuildTime = 0; // in nanoseconds
+
+    private final AtomicLong lookupCount = new AtomicLong(0);
+    private final AtomicLong lookupTime = new AtomicLong(0); // in nanoseconds
+
+    public AutocompleteSuggester() {
+        this.popularitySignal = (entityIri, documentCount) -> getUsageCount(entityIri);
+    }
+
+    public AutocompleteSuggester(@Nonnull PopularitySignal popularitySignal) {
+        this.popularitySignal = checkNotNull(popularitySignal);
+    }
+
+    /**
+     * Rebuilds the suggester from the entity display names and IRIs of the given index
+     * reader. The rebuild is skipped if the suggester is current (see
+     * {@link #isCurrent(long)}), or if the previous rebuild happened less than
+     * {@link #MIN_REBUILD_INTERVAL} ago.
+     *
+     * @param reader
+     *          The index reader
+     * @param version
+     *          The version of the index reader
+     * @return Returns <code>true</code> if the suggester was rebuilt, or <code>false</code>
+     * otherwise.
+     */
+    public boolean build(@Nonnull IndexReader reader, long version) throws IOException {
+        checkNotNull(reader);
+        if (!isRebuildDue(version)) {
+            return false;
+        }
+        long usageVersionAtBuild = usageVersion.get();
+        invalidated = false;
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        TreeMap<BytesRef, Long> entries = collectEntries(reader);
+        PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+        Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, outputs);
+        IntsRefBuilder scratchInts = new IntsRefBuilder();
+        for (Map.Entry<BytesRef, Long> entry : entries.entrySet()) { // the inputs are added in sorted order
+            builder.add(Util.toIntsRef(entry.getKey(), scratchInts), entry.getValue());
+        }
+        fst = builder.finish(); // null if there are no entries
+        entryCount = entries.size();
+        readerVersion = version;
+        builtUsageVersion = usageVersionAtBuild;
+        lastBuildTime = System.nanoTime();
+        stopwatch.stop();
+        logger.info("... built autocomplete suggester in {} ms ({} entries, {} KB)", stopwatch.elapsed(TimeUnit.MILLISECONDS),
+                entryCount, (fst != null) ? fst.ramBytesUsed() / 1024 : 0);
+        return true;
+    }
+
+    /**
+     * Checks if the suggester was built from the given reader version and with the latest
+     * recorded usage and weights.
+     */
+    public boolean isCurrent(long version) {
+        return readerVersion == version && builtUsageVersion == usageVersion.get() && !invalidated;
+    }
+
+    /**
+     * Checks if {@link #build(IndexReader, long)} would rebuild the suggester for the given
+     * reader version, i.e., the suggester was never built, or it is not current and the
+     * minimum rebuild interval has passed.
+     */
+    public boolean isRebuildDue(long version) {
+        if (!isBuilt()) {
+            return true;
+        }
+        if (isCurrent(version)) {
+            return false;
+        }
+        return System.nanoTime() - lastBuildTime >= TimeUnit.MILLISECONDS.toNanos(MIN_REBUILD_INTERVAL);
+    }
+
+    /**
+     * Marks the entry weights as outdated, e.g., when the popularity signal changes, such
+     * that the next due rebuild recomputes them.
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    /**
+     * Drops the suggestions, e.g., when a different index gets loaded.
+     */
+    public void clear() {
+        fst = null;
+        entryCount = 0;
+        readerVersion = -1;
+        lastBuildTime = 0;
+    }
+
+    /**
+     * Checks if the suggester was built, even if the index had no entity names to suggest.
+     */
+    public boolean isBuilt() {
+        return readerVersion != -1;
+    }
+
+    /**
+     * Gets the top-N entities whose display name starts with the given prefix, the most
+     * popular ones first. The prefix is matched case-insensitively.
+     *
+     * @param prefix
+     *          The typed prefix
+     * @param limit
+     *          The maximum number of suggestions
+     * @return A list of suggestions, or an empty list if the suggester is not built yet.
+     */
+    public List<Suggestion> lookup(@Nonnull String prefix, int limit) {
+        checkNotNull(prefix);
+        FST<Long> currentFst = fst;
+        if (currentFst == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long startTime = System.nanoTime();
+        try {
+            BytesRef prefixBytes = new BytesRef(prefix.toLowerCase());
+            FST.Arc<Long> arc = new FST.Arc<>();
+            Long prefixOutput = lookupPrefix(currentFst, prefixBytes, arc);
+            if (prefixOutput == null) {
+                return Collections.emptyList();
+            }
+            Util.TopResults<Long> completions = Util.shortestPaths(currentFst, arc, prefixOutput, COST_COMPARATOR, limit, true);
+            List<Suggestion> suggestions = new ArrayList<>(completions.topN.size());
+            BytesRefBuilder suffix = new BytesRefBuilder();
+            for (Util.Result<Long> completion : completions) {
+                BytesRefBuilder key = new BytesRefBuilder();
+                key.append(prefixBytes);
+                key.append(Util.toBytesRef(completion.input, suffix));
+                suggestions.add(createSuggestion(key.get(), completion.output));
+            }
+            return suggestions;
+        }
+        catch (IOException e) {
+            logger.error("Unable to look up the suggestions for '{}'", prefix, e);
+            return Collections.emptyList();
+        }
+        finally {
+            lookupCount.incrementAndGet();
+            lookupTime.addAndGet(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Records that the entity was picked, which raises its weight in the default popularity
+     * signal. The suggester becomes stale and the new weight is used when it is next rebuilt.
+     */
+    public void recordUsage(@Nonnull String entityIri) {
+        usageCounts.merge(checkNotNull(entityIri), 1L, Long::sum);
+        usageVersion.incrementAndGet();
+    }
+
+    public long getUsageCount(@Nonnull String entityIri) {
+        return usageCounts.getOrDefault(entityIri, 0L);
+    }
+
+    public String getStatistics() {
+        long count = lookupCount.get();
+        double averageTime = (count == 0) ? 0 : lookupTime.get() / (count * 1000.0);
+        return String.format("%d entries, %d lookup(s), %.1f us per lookup", entryCount, count, averageTime);
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    /*
+     * Collects the distinct entries of the entity display names, keyed by the display name
+     * sort key and the entity IRI. The annotation and axiom documents repeat the display
+     * name of their subject, hence the same key is seen several times and the number of
+     * times is the document count given to the popularity signal.
+     */
+    private TreeMap<BytesRef, Long> collectEntries(IndexReader reader) throws IOException {
+        TreeMap<BytesRef, EntryCount> counts = new TreeMap<>();
+        for (LeafReaderContext context : reader.leaves()) {
+            LeafReader leafReader = context.reader();
+            SortedDocValues names = DocValues.getSorted(leafReader, IndexField.DISPLAY_NAME_SORT);
+            SortedDocValues iris = DocValues.getSorted(leafReader, IndexField.ENTITY_IRI);
+            Bits liveDocs = leafReader.getLiveDocs();
+            for (int docId = 0; docId < leafReader.maxDoc(); docId++) {
+                if (liveDocs != null && !liveDocs.get(docId)) {
+                    continue;
+                }
+                if (names.getOrd(docId) < 0 || iris.getOrd(docId) < 0) {
+                    continue;
+                }
+                BytesRef iri = iris.get(docId);
+                BytesRefBuilder key = new BytesRefBuilder();
+                key.append(names.get(docId));
+                key.append(SEPARATOR);
+                key.append(iri);
+                EntryCount count = counts.get(key.get());
+                if (count == null) {
+                    count = new EntryCount(iri.utf8ToString());
+                    counts.put(key.get(), count);
+                }
+                count.documentCount++;
+            }
+        }
+        TreeMap<BytesRef, Long> entries = new TreeMap<>();
+        for (Map.Entry<BytesRef, EntryCount> entry : counts.entrySet()) {
+            EntryCount count = entry.getValue();
+            entries.put(entry.getKey(), toCost(popularitySignal.getWeight(count.entityIri, count.documentCount)));
+        }
+        return entries;
+    }
+
+    /*
+     * Follows the prefix from the root of the FST. The arc ends at the last byte of the
+     * prefix, and the returned value is the output accumulated along the prefix, or null if
+     * no input starts with the prefix.
+     */
+    private static Long lookupPrefix(FST<Long> fst, BytesRef prefix, FST.Arc<Long> arc) throws IOException {
+        Long output = fst.outputs.getNoOutput();
+        FST.BytesReader bytesReader = fst.getBytesReader();
+        fst.getFirstArc(arc);
+        for (int i = prefix.offset; i < prefix.offset + prefix.length; i++) {
+            if (fst.findTargetArc(prefix.bytes[i] & 0xff, arc, arc, bytesReader) == null) {
+                return null;
+            }
+            output = fst.outputs.add(output, arc.output);
+        }
+        return output;
+    }
+
+    private static Suggestion createSuggestion(BytesRef key, long cost) {
+        int separator = key.offset;
+        int end = key.offset + key.length;
+        while (separator < end && key.bytes[separator] != SEPARATOR) {
+            separator++;
+        }
+        String name = new String(key.bytes, key.offset, separator - key.offset, StandardCharsets.UTF_8);
+        String iri = (separator < end)
+                ? new String(key.bytes, separator + 1, end - separator - 1, StandardCharsets.UTF_8)
+                : "";
+        return new Suggestion(name, iri, MAX_WEIGHT - cost);
+    }
+
+    /*
+     * The FST finds the paths of the lowest cost, hence the higher weights get the lower costs.
+     */
+    private static long toCost(long weight) {
+        return MAX_WEIGHT - Math.max(0, Math.min(weight, MAX_WEIGHT));
+    }
+
+    /**
+     * Gives the weight of an entity in the suggestions, e.g., a usage count. A higher
+     * weight ranks the entity higher.
+     */
+    @FunctionalInterface
+    public interface PopularitySignal {
+
+        /**
+         * @param entityIri
+         *          The entity IRI
+         * @param documentCount
+         *          The number of index documents about the entity, i.e., the entity
+         *          document and its annotation and axiom documents
+         */
+        long getWeight(String entityIri, int documentCount);
+    }
+
+    private static class EntryCount {
+
+        private final String entityIri;
+        private int documentCount = 0;
+
+        private EntryCount(String entityIri) {
+            this.entityIri = entityIri;
+        }
+    }
+
+    public static class Suggestion {
+
+        private final String name;
+        private final String entityIri;
+        private final long weight;
+
+        private Suggestion(String name, String entityIri, long weight) {
+            this.name = name;
+            this.entityIri = entityIri;
+            this.weight = weight;
+        }
+
+        /**
+         * Gets the lowercased display name that completes the prefix.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public String getEntityIri() {
+            return entityIri;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return name + " <" + entityIri + "> (" + weight + ")";
+        }
+    }
+}
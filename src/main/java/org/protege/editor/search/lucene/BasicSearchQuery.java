@@ -1,15 +1,24 @@
 package org.protege.editor.search.lucene;
 
 import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.search.lucene.QueryProfile.ClauseProfile;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.ExitableDirectoryReader;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 public class BasicSearchQuery implements SearchQuery {
 
     private Query query;
@@ -31,13 +40,27 @@ public class BasicSearchQuery implements SearchQuery {
         return category;
     }
 
+    @Override
+    public BasicSearchQuery filter(Query filter) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(query, Occur.MUST);
+        builder.add(filter, Occur.FILTER);
+        return new BasicSearchQuery(builder.build(), category, searcher);
+    }
+
+    @Override
+    public void collectQueries(Collection<Query> queries) {
+        queries.add(query);
+    }
+
     public Set<Document> evaluate() throws QueryEvaluationException {
+        IndexSearcher indexSearcher = acquireIndexSearcher();
         try {
             Set<Document> docs = new HashSet<>();
-            TopDocs hits = searcher.search(query);
+            TopDocs hits = indexSearcher.search(query, Integer.MAX_VALUE);
             int hitNumber = hits.scoreDocs.length;
             for (int i = 1; i <= hitNumber; i++) {
-                Document doc = searcher.find(hits.scoreDocs[i-1].doc);
+                Document doc = indexSearcher.doc(hits.scoreDocs[i-1].doc);
                 docs.add(doc);
             }
             return docs;
@@ -45,21 +68,70 @@ public class BasicSearchQuery implements SearchQuery {
         catch (IOException e) {
             throw new QueryEvaluationException(e);
         }
+        finally {
+            searcher.releaseIndexSearcher(indexSearcher);
+        }
     }
 
     @Override
     public void evaluate(AbstractDocumentHandler handler) throws QueryEvaluationException {
-        Set<Document> docs = evaluate();
-        docs.stream().forEach((doc) -> handler.handle(category, doc));
+        evaluate(handler, progress -> {});
     }
 
     @Override
     public void evaluate(AbstractDocumentHandler handler, SearchProgressListener listener) throws QueryEvaluationException {
-        Set<Document> docs = evaluate();
-        int counter = 0;
-        for (Document doc : docs) {
-            handler.handle(category, doc);
-            listener.fireSearchingProgressed((counter++*100)/docs.size());
+        IndexSearcher indexSearcher = acquireIndexSearcher();
+        try {
+            evaluate(indexSearcher, handler, listener, SearchBudget.UNLIMITED, null);
+        }
+        finally {
+            searcher.releaseIndexSearcher(indexSearcher);
+        }
+    }
+
+    @Override
+    public void evaluate(IndexSearcher indexSearcher, AbstractDocumentHandler handler, SearchProgressListener listener,
+            SearchBudget budget, @Nullable QueryProfile profile) throws QueryEvaluationException {
+        ClauseProfile clauseProfile = (profile != null) ? profile.addClause(category, query) : null;
+        ProfilingCollector profilingCollector = null;
+        boolean exhausted = false;
+        long searchStartTime = 0;
+        try {
+            budget.startQuery();
+            Collector collector = new HitCollector(category, handler, listener, budget, indexSearcher.getIndexReader().maxDoc());
+            if (clauseProfile != null) {
+                long rewriteStartTime = System.nanoTime();
+                Query rewrittenQuery = indexSearcher.rewrite(query);
+                long rewriteTime = System.nanoTime() - rewriteStartTime;
+                int expandedTermCount = TermExpansionCounter.count(indexSearcher.getIndexReader(), query); // not part of the rewrite time
+                clauseProfile.setRewrite(rewrittenQuery, expandedTermCount, rewriteTime);
+                profilingCollector = new ProfilingCollector(collector, clauseProfile);
+                collector = profilingCollector;
+            }
+            searchStartTime = System.nanoTime();
+            searcher.search(indexSearcher, query, collector, budget);
+        }
+        catch (SearchBudget.BudgetExhaustedException | ExitableDirectoryReader.ExitingReaderException e) {
+            exhausted = true; // keep the hits collected so far, the caller checks the budget
+        }
+        catch (IOException e) {
+            throw new QueryEvaluationException(e);
+        }
+        finally {
+            if (profilingCollector != null) {
+                profilingCollector.finish();
+                clauseProfile.setSearch(profilingCollector.getHitCount(), System.nanoTime() - searchStartTime,
+                        profilingCollector.getHandlerTime(), exhausted);
+            }
+        }
+    }
+
+    private IndexSearcher acquireIndexSearcher() throws QueryEvaluationException {
+        try {
+            return searcher.acquireIndexSearcher();
+        }
+        catch (IOException e) {
+            throw new QueryEvaluationException(e);
         }
     }
 
@@ -0,0 +1,14 @@
+package org.protege.editor.search.lucene;
+
+/**
+ * The values of the {@link IndexField#DOC_KIND} field, which tells the kind of content
+ * an index document holds.
+ */
+public final class DocKind {
+
+    public static final String ENTITY = "entity";
+
+    public static final String ANNOTATION = "annotation";
+
+    public static final String AXIOM = "axiom";
+}
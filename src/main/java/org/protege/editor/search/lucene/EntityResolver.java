@@ -0,0 +1,67 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.model.find.OWLEntityFinder;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Resolves entity IRIs to OWL entities and their renderings during a single search.
+ * Each distinct IRI is resolved only once per search, regardless of how many hits
+ * or sub-queries refer to it, while the renderings are taken from a cache that is
+ * shared across searches.
+ */
+public class EntityResolver {
+
+    private final OWLEntityFinder entityFinder;
+
+    private final RenderingCache renderingCache;
+
+    private final Map<String, Optional<OWLEntity>> resolvedEntities = new HashMap<>();
+
+    public EntityResolver(@Nonnull OWLEditorKit editorKit, @Nonnull RenderingCache renderingCache) {
+        this(editorKit.getOWLModelManager().getOWLEntityFinder(), renderingCache);
+    }
+
+    EntityResolver(@Nonnull OWLEntityFinder entityFinder, @Nonnull RenderingCache renderingCache) {
+        this.entityFinder = checkNotNull(entityFinder);
+        this.renderingCache = checkNotNull(renderingCache);
+    }
+
+    /**
+     * Resolves the given entity IRIs in a single batch. IRIs that were resolved before are
+     * skipped.
+     */
+    public void resolveAll(@Nonnull Collection<String> identifiers) {
+        for (String identifier : identifiers) {
+            getEntity(identifier);
+        }
+    }
+
+    public Optional<OWLEntity> getEntity(@Nonnull String identifier) {
+        Optional<OWLEntity> entity = resolvedEntities.get(identifier);
+        if (entity == null) {
+            entity = entityFinder.getEntities(IRI.create(identifier)).stream().findFirst();
+            resolvedEntities.put(identifier, entity);
+        }
+        return entity;
+    }
+
+    public String getRendering(@Nonnull OWLEntity entity) {
+        return renderingCache.getRendering(entity);
+    }
+
+    public int size() {
+        return resolvedEntities.size();
+    }
+}
@@ -0,0 +1,72 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the values of a sorted-set doc values field for a set of documents. The counts
+ * are kept per segment and per ordinal, hence counting a document costs an array increment
+ * for each of its values, and the values are only decoded once per segment when the
+ * counts are read.
+ */
+class FacetCounter {
+
+    private final String field;
+
+    private final Map<Integer, SortedSetDocValues> leafValues = new HashMap<>();
+
+    private final Map<Integer, int[]> leafCounts = new HashMap<>();
+
+    FacetCounter(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Counts the values of the given document.
+     *
+     * @param leaf
+     *          The index segment of the document
+     * @param leafDocId
+     *          The document id within the segment
+     */
+    void count(LeafReaderContext leaf, int leafDocId) throws IOException {
+        SortedSetDocValues values = leafValues.get(leaf.ord);
+        int[] counts;
+        if (values == null) {
+            values = DocValues.getSortedSet(leaf.reader(), field);
+            counts = new int[(int) values.getValueCount()];
+            leafValues.put(leaf.ord, values);
+            leafCounts.put(leaf.ord, counts);
+        }
+        else {
+            counts = leafCounts.get(leaf.ord);
+        }
+        values.setDocument(leafDocId);
+        for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+            counts[(int) ord]++;
+        }
+    }
+
+    /**
+     * Gets the counts of the values, sorted by value.
+     */
+    Map<String, Integer> getCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<Integer, int[]> entry : leafCounts.entrySet()) {
+            SortedSetDocValues values = leafValues.get(entry.getKey());
+            int[] ordCounts = entry.getValue();
+            for (int ord = 0; ord < ordCounts.length; ord++) {
+                if (ordCounts[ord] > 0) {
+                    counts.merge(values.lookupOrd(ord).utf8ToString(), ordCounts[ord], Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,70 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.search.lucene.SearchQuery.SearchProgressListener;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.SimpleCollector;
+
+import java.io.IOException;
+
+/**
+ * Passes the matching documents straight to the document handler, without scoring or
+ * sorting them. The collector checks the search budget every few hundred hits and stops
+ * the collection by throwing {@link SearchBudget.BudgetExhaustedException}. The hits that
+ * were handled until then are kept.
+ */
+public class HitCollector extends SimpleCollector {
+
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private final SearchCategory category;
+
+    private final AbstractDocumentHandler handler;
+
+    private final SearchProgressListener listener;
+
+    private final SearchBudget budget;
+
+    private final int maxDoc;
+
+    private int docBase = 0;
+
+    private int hitCount = 0;
+
+    public HitCollector(SearchCategory category, AbstractDocumentHandler handler, SearchProgressListener listener,
+            SearchBudget budget, int maxDoc) {
+        this.category = category;
+        this.handler = handler;
+        this.listener = listener;
+        this.budget = budget;
+        this.maxDoc = Math.max(1, maxDoc);
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        docBase = context.docBase;
+        if (budget.shouldExit()) {
+            throw new SearchBudget.BudgetExhaustedException();
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        int docId = docBase + doc;
+        handler.handle(category, docId);
+        listener.fireSearchingProgressed((docId * 100L) / maxDoc);
+        if (++hitCount % BUDGET_CHECK_INTERVAL == 0 && budget.shouldExit()) {
+            throw new SearchBudget.BudgetExhaustedException();
+        }
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+}
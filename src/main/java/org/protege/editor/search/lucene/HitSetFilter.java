@@ -0,0 +1,69 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BitsFilteredDocIdSet;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.BitDocIdSet;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A filter that accepts only the documents recorded in a hit set. The hit set
+ * contains the top-level document ids of a previous search, therefore the filter
+ * is only valid for the same index reader that produced the hits.
+ */
+public class HitSetFilter extends Filter {
+
+    private final BitSet hits;
+
+    public HitSetFilter(@Nonnull BitSet hits) {
+        this.hits = checkNotNull(hits);
+    }
+
+    public int size() {
+        return hits.cardinality();
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(LeafReaderContext context, Bits acceptDocs) throws IOException {
+        final int docBase = context.docBase;
+        final int maxDoc = context.reader().maxDoc();
+        int doc = hits.nextSetBit(docBase);
+        if (doc == -1 || doc >= docBase + maxDoc) {
+            return null; // no hits in this segment
+        }
+        FixedBitSet segmentHits = new FixedBitSet(maxDoc);
+        for (; doc != -1 && doc < docBase + maxDoc; doc = hits.nextSetBit(doc + 1)) {
+            segmentHits.set(doc - docBase);
+        }
+        return BitsFilteredDocIdSet.wrap(new BitDocIdSet(segmentHits), acceptDocs);
+    }
+
+    /*
+     * Hit sets are never shared between searches, so use the identity equality to prevent
+     * the filter from being mistaken for another one in the query cache.
+     */
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString(String field) {
+        return "HitSetFilter(" + hits.cardinality() + " hits)";
+    }
+}
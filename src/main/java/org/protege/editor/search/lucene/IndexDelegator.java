@@ -5,21 +5,47 @@ import org.protege.editor.search.lucene.AbstractLuceneIndexer.IndexProgressListe
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Accountable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 
@@ -35,42 +61,265 @@ public class IndexDelegator implements Disposable {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexDelegator.class);
 
+    private static final String SCHEMA_VERSION_KEY = "schemaVersion";
+
+    private static final int QUERY_CACHE_SIZE = 256; // in number of queries
+
+    private static final long QUERY_CACHE_RAM = 16 * 1024 * 1024; // in bytes
+
+    /*
+     * The files that the first searches read at random: the term dictionary and its index
+     * and the doc values
+     */
+    private static final List<String> PRELOAD_EXTENSIONS = Arrays.asList("tim", "tip", "dvd", "dvm");
+
+    private static final int PRELOAD_BUFFER_SIZE = 64 * 1024; // in bytes
+
     private final Directory directory;
 
-    private final IndexWriter indexWriter;
+    private final Supplier<IndexWriterConfig> writerConfigSupplier;
+
+    /*
+     * Guards the index writer, which is closed while the index waits in the index pool and
+     * reopened when the index gets written again
+     */
+    private final Object writerLock = new Object();
+
+    private IndexWriter indexWriter;
 
     private IndexSearcher indexSearcher;
 
     private DirectoryReader currentReader;
 
+    private Set<String> indexedFields = Collections.emptySet();
+
+    /*
+     * The cache of the per-segment filter bitsets, shared by the searchers of this index such
+     * that the bitsets of the unchanged segments survive a reopen
+     */
+    private final LRUQueryCache queryCache = new LRUQueryCache(QUERY_CACHE_SIZE, QUERY_CACHE_RAM);
+
+    private final QueryCachingPolicy queryCachingPolicy = SearchFilters.createCachingPolicy();
+
     // Prevent external instantiation
-    private IndexDelegator(@Nonnull IndexWriter writer, @Nonnull Directory directory) {
+    private IndexDelegator(@Nonnull IndexWriter writer, @Nonnull Directory directory,
+            @Nonnull Supplier<IndexWriterConfig> writerConfigSupplier) {
         this.indexWriter = writer;
         this.directory = directory;
+        this.writerConfigSupplier = writerConfigSupplier;
     }
 
-    public static IndexDelegator getInstance(@Nonnull Directory directory, @Nonnull IndexWriterConfig writerConfig) throws IOException {
-        IndexWriter writer = new IndexWriter(directory, writerConfig);
-        return new IndexDelegator(writer, directory);
+    /**
+     * Opens the index in the given directory.
+     *
+     * @param directory
+     *          The index directory
+     * @param writerConfigSupplier
+     *          Creates the configuration of the index writer, every time the writer is
+     *          opened, since a configuration can only be used by a single writer
+     */
+    public static IndexDelegator getInstance(@Nonnull Directory directory,
+            @Nonnull Supplier<IndexWriterConfig> writerConfigSupplier) throws IOException {
+        IndexWriter writer = new IndexWriter(directory, writerConfigSupplier.get());
+        return new IndexDelegator(writer, directory, writerConfigSupplier);
     }
 
-    public IndexWriter getWriter() {
-        return indexWriter;
+    public Directory getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the index writer, which is reopened if it was closed by {@link #closeWriter()}.
+     */
+    public IndexWriter getWriter() throws IOException {
+        synchronized (writerLock) {
+            if (!isOpen(indexWriter)) {
+                indexWriter = new IndexWriter(directory, writerConfigSupplier.get());
+            }
+            return indexWriter;
+        }
+    }
+
+    /**
+     * Closes the index writer of an idle index, which releases the write lock and the
+     * writer buffers, while the index reader stays open for searching. Changes that were
+     * not committed are rolled back.
+     */
+    public void closeWriter() throws IOException {
+        synchronized (writerLock) {
+            if (isOpen(indexWriter)) {
+                indexWriter.rollback();
+            }
+            indexWriter = null;
+        }
     }
 
-    public IndexSearcher getSearcher() throws IOException {
+    /**
+     * Estimates the number of files this index keeps open, i.e., the files of the current
+     * reader and the write lock of an open writer.
+     */
+    public synchronized int getOpenFileCount() {
+        int count = 0;
+        if (currentReader != null) {
+            try {
+                count += currentReader.getIndexCommit().getFileNames().size();
+            }
+            catch (IOException e) {
+                logger.warn("Unable to list the files of the index reader", e);
+            }
+        }
+        synchronized (writerLock) {
+            if (isOpen(indexWriter)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the heap memory used by this index, i.e., the cached filter bitsets and the
+     * files of an in-memory index directory, in bytes.
+     */
+    public long ramBytesUsed() {
+        long bytes = queryCache.ramBytesUsed();
+        if (directory instanceof Accountable) {
+            bytes += ((Accountable) directory).ramBytesUsed();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the index searcher. The searcher is not reopened when the index changes. Call
+     * {@link #refreshSearcher()} to see the latest index changes, which closes the index reader
+     * of the previous searcher unless it was acquired by {@link #acquireSearcher()}.
+     */
+    public synchronized IndexSearcher getSearcher() throws IOException {
         if (indexSearcher == null) {
             currentReader = DirectoryReader.open(directory);
-            indexSearcher = new IndexSearcher(currentReader);
+            indexSearcher = createSearcher(currentReader);
+            indexedFields = readIndexedFields(currentReader);
         }
-        else {
+        return indexSearcher;
+    }
+
+    /**
+     * Reopens the index searcher if the index has changed since the searcher was opened.
+     *
+     * @return The latest index searcher
+     */
+    public synchronized IndexSearcher refreshSearcher() throws IOException {
+        if (indexSearcher != null) {
             DirectoryReader reader = DirectoryReader.openIfChanged(currentReader);
             if (reader != null) {
+                DirectoryReader oldReader = currentReader;
                 currentReader = reader;
-                indexSearcher = new IndexSearcher(reader);
+                indexSearcher = createSearcher(reader);
+                indexedFields = readIndexedFields(reader);
+                oldReader.decRef(); // closed once the searches and the search results release it
             }
         }
-        return indexSearcher;
+        return getSearcher();
+    }
+
+    /**
+     * Acquires the current index searcher for a search. The index reader of the searcher stays
+     * open, even after {@link #refreshSearcher()} replaced the searcher, until the search calls
+     * {@link #releaseSearcher(IndexSearcher)}, such that all the document ids of the search come
+     * from the same reader.
+     */
+    public synchronized IndexSearcher acquireSearcher() throws IOException {
+        IndexSearcher searcher = getSearcher();
+        searcher.getIndexReader().incRef();
+        return searcher;
+    }
+
+    /**
+     * Releases an index searcher acquired by {@link #acquireSearcher()}.
+     */
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        searcher.getIndexReader().decRef();
+    }
+
+    /**
+     * Fills the query cache with the filter bitsets of the current searcher, such that the
+     * first searches after the index is opened or changed do not compute them.
+     */
+    public void warmFilterCache() throws IOException {
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            for (Query filter : SearchFilters.getWarmingFilters()) {
+                searcher.search(new ConstantScoreQuery(filter), new TotalHitCountCollector());
+            }
+        }
+        finally {
+            releaseSearcher(searcher);
+        }
+        logger.debug("... query cache: {} hit(s), {} miss(es), {} cached bitset(s), {} KB", queryCache.getHitCount(),
+                queryCache.getMissCount(), queryCache.getCacheSize(), queryCache.ramBytesUsed() / 1024);
+    }
+
+    /**
+     * Reads the term dictionary and doc values files of the index sequentially, such that
+     * the operating system has them in its page cache before the first searches seek into
+     * them. The stored fields and postings are not read. For a segment in a compound file,
+     * only the term dictionary and doc values entries of the compound file are read. The
+     * files of an in-memory index are not read.
+     *
+     * @return The number of bytes read
+     */
+    public long preloadFiles() throws IOException {
+        if (directory instanceof RAMDirectory) {
+            return 0;
+        }
+        long bytes = 0;
+        byte[] buffer = new byte[PRELOAD_BUFFER_SIZE];
+        try {
+            for (SegmentCommitInfo segment : SegmentInfos.readLatestCommit(directory)) {
+                SegmentInfo info = segment.info;
+                if (info.getUseCompoundFile()) {
+                    try (Directory compoundDirectory = info.getCodec().compoundFormat()
+                            .getCompoundReader(directory, info, IOContext.READONCE)) {
+                        bytes += preloadFiles(compoundDirectory, Arrays.asList(compoundDirectory.listAll()), buffer);
+                    }
+                }
+                else {
+                    bytes += preloadFiles(directory, segment.files(), buffer);
+                }
+            }
+        }
+        catch (NoSuchFileException | FileNotFoundException e) {
+            // NO-OP: the segment was merged away in the meantime
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the version of the index reader that is currently used for searching. A different
+     * version number indicates that the reader was reopened after an index change.
+     *
+     * @return The version number of the current index reader
+     */
+    public synchronized long getReaderVersion() throws IOException {
+        getSearcher();
+        return currentReader.getVersion();
+    }
+
+    /**
+     * Checks if the current index reader has the given field, e.g., to find out whether
+     * an optional field was indexed.
+     */
+    public synchronized boolean hasField(String field) {
+        return indexedFields.contains(field);
+    }
+
+    /**
+     * Checks if the index was written with the current set of index fields. An index that
+     * was built by an older version of the plugin lacks the newer fields and should be
+     * rebuilt.
+     */
+    public boolean isSchemaCurrent() throws IOException {
+        Map<String, String> userData = SegmentInfos.readLatestCommit(directory).getUserData();
+        return IndexDocumentBuilder.getSchemaVersion().equals(userData.get(SCHEMA_VERSION_KEY));
     }
 
     public boolean indexExists() {
@@ -84,45 +333,81 @@ public class IndexDelegator implements Disposable {
     public void buildIndex(Set<Document> documents, IndexProgressListener listener) throws IOException {
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.info("... start writing index");
+        IndexWriter writer = getWriter();
         int progress = 1;
+        int lastPercentage = -1;
         for (Document doc : documents) {
-            indexWriter.addDocument(doc);
-            if (listener != null) {
-                listener.fireIndexingProgressed(percentage(progress++, documents.size()));
+            writer.addDocument(doc);
+            int percentage = percentage(progress++, documents.size());
+            if (listener != null && percentage != lastPercentage) { // report only the changes
+                listener.fireIndexingProgressed(percentage);
+                lastPercentage = percentage;
             }
         }
+        // The schema version is carried over to the commits of the later index updates
+        writer.setCommitData(Collections.singletonMap(SCHEMA_VERSION_KEY, IndexDocumentBuilder.getSchemaVersion()));
         commitIndex();
         stopwatch.stop();
         logger.info("... built index in {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        logger.info("... index size {} KB (schema {})", getIndexSize() / 1024, IndexDocumentBuilder.getSchemaVersion());
+        logPhoneticFieldSize();
+    }
+
+    /*
+     * Logs the number of terms of the optional phonetic name field, which is the index cost
+     * of the phonetic search.
+     */
+    private void logPhoneticFieldSize() throws IOException {
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            long termCount = 0;
+            long postingCount = 0;
+            for (LeafReaderContext context : reader.leaves()) {
+                Terms terms = context.reader().terms(IndexField.PHONETIC_NAME);
+                if (terms != null) {
+                    termCount += terms.size();
+                    postingCount += terms.getSumDocFreq();
+                }
+            }
+            if (termCount > 0) {
+                logger.info("... phonetic name field: {} terms (summed over segments), {} postings", termCount, postingCount);
+            }
+        }
     }
 
     public void appendIndex(AddChangeSet changeSet) throws IOException {
+        IndexWriter writer = getWriter();
         for (Document doc : changeSet) {
-            indexWriter.addDocument(doc);
+            writer.addDocument(doc);
         }
         commitIndex();
     }
 
     public void removeIndex(RemoveChangeSet changeSet) throws IOException {
+        IndexWriter writer = getWriter();
         for (List<Term> terms : changeSet) {
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
             for (Term term : terms) {
                 builder.add(new TermQuery(term), Occur.MUST);
             }
-            indexWriter.deleteDocuments(builder.build());
+            writer.deleteDocuments(builder.build());
         }
         commitIndex();
     }
 
     @Override
-    public void dispose() throws IOException {
-        if (isOpen(indexWriter)) {
-            indexWriter.close();
-            directory.close();
-            if (currentReader != null) {
-                currentReader.close();
+    public synchronized void dispose() throws IOException {
+        synchronized (writerLock) {
+            if (isOpen(indexWriter)) {
+                indexWriter.close();
             }
+            indexWriter = null;
         }
+        if (currentReader != null) {
+            currentReader.close();
+            currentReader = null;
+            indexSearcher = null;
+        }
+        directory.close();
     }
 
     /*
@@ -135,9 +420,72 @@ public class IndexDelegator implements Disposable {
     }
 
     private void commitIndex() throws IOException {
-        if (isOpen(indexWriter)) {
-            indexWriter.commit();
+        synchronized (writerLock) {
+            if (isOpen(indexWriter)) {
+                indexWriter.commit();
+            }
+        }
+    }
+
+    private IndexSearcher createSearcher(IndexReader reader) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(queryCache);
+        searcher.setQueryCachingPolicy(queryCachingPolicy);
+        return searcher;
+    }
+
+    private static Set<String> readIndexedFields(IndexReader reader) {
+        Set<String> fields = new HashSet<>();
+        for (FieldInfo fieldInfo : MultiFields.getMergedFieldInfos(reader)) {
+            if (fieldInfo.getIndexOptions() != IndexOptions.NONE) {
+                fields.add(fieldInfo.name);
+            }
+        }
+        return fields;
+    }
+
+    /*
+     * Gets the total size of the index files in bytes.
+     */
+    private long getIndexSize() {
+        long size = 0;
+        try {
+            for (String fileName : directory.listAll()) {
+                size += directory.fileLength(fileName);
+            }
         }
+        catch (IOException e) {
+            logger.warn("Unable to compute the index size", e);
+        }
+        return size;
+    }
+
+    private static long preloadFiles(Directory directory, Collection<String> fileNames, byte[] buffer)
+            throws IOException {
+        long bytes = 0;
+        for (String fileName : fileNames) {
+            if (!PRELOAD_EXTENSIONS.contains(getExtension(fileName))) {
+                continue;
+            }
+            try (IndexInput input = directory.openInput(fileName, IOContext.READONCE)) {
+                long remaining = input.length();
+                while (remaining > 0) {
+                    int length = (int) Math.min(buffer.length, remaining);
+                    input.readBytes(buffer, 0, length);
+                    remaining -= length;
+                }
+                bytes += input.length();
+            }
+            catch (NoSuchFileException | FileNotFoundException e) {
+                // NO-OP: the file was deleted by a merge in the meantime
+            }
+        }
+        return bytes;
+    }
+
+    private static String getExtension(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return (index == -1) ? "" : fileName.substring(index + 1);
     }
 
     private static int percentage(int progress, int total) {
@@ -0,0 +1,184 @@
+package org.protege.editor.search.lucene;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the indexes of the recently used ontologies open, such that switching back to an
+ * ontology reuses its index reader, its cached filter bitsets and the warm page cache of
+ * its files instead of opening the index again. The writers of the pooled indexes are
+ * closed, since only the index of the active ontology gets updated.
+ * <p>
+ * The pool is bounded by the memory and the open files budgets of the preferences (see
+ * {@link LuceneIndexPreferences#getIndexPoolMemoryBudget()} and
+ * {@link LuceneIndexPreferences#getIndexPoolFileBudget()}). The least recently used
+ * indexes are disposed when the pooled indexes exceed either budget.
+ */
+public class IndexDelegatorPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexDelegatorPool.class);
+
+    /*
+     * In access order, the least recently used index first
+     */
+    private final LinkedHashMap<String, IndexDelegator> idleDelegators = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongSupplier memoryBudget; // in bytes
+
+    private final IntSupplier fileBudget;
+
+    private final AtomicLong reuseCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    public IndexDelegatorPool() {
+        this(() -> LuceneIndexPreferences.getIndexPoolMemoryBudget() * 1024L * 1024L,
+                LuceneIndexPreferences::getIndexPoolFileBudget);
+    }
+
+    /**
+     * Creates a pool with the given budgets instead of the budgets of the preferences.
+     *
+     * @param memoryBudget
+     *          Gets the memory budget in bytes
+     * @param fileBudget
+     *          Gets the open files budget
+     */
+    IndexDelegatorPool(@Nonnull LongSupplier memoryBudget, @Nonnull IntSupplier fileBudget) {
+        this.memoryBudget = checkNotNull(memoryBudget);
+        this.fileBudget = checkNotNull(fileBudget);
+    }
+
+    /**
+     * Takes the open index of the given key out of the pool.
+     *
+     * @param key
+     *          The key of the ontology index
+     * @return The open index, or an empty optional if the pool does not have it.
+     */
+    public synchronized Optional<IndexDelegator> take(@Nonnull String key) {
+        IndexDelegator delegator = idleDelegators.remove(checkNotNull(key));
+        if (delegator == null) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        reuseCount.incrementAndGet();
+        return Optional.of(delegator);
+    }
+
+    /**
+     * Puts an index that is no longer in use into the pool. Its writer is closed and the
+     * least recently used indexes are disposed if the pool exceeds its budgets.
+     *
+     * @param key
+     *          The key of the ontology index
+     * @param delegator
+     *          The open index
+     */
+    public synchronized void release(@Nonnull String key, @Nonnull IndexDelegator delegator) {
+        checkNotNull(key);
+        checkNotNull(delegator);
+        try {
+            delegator.closeWriter();
+        }
+        catch (IOException e) {
+            logger.warn("Unable to close the writer of a pooled index, disposing the index", e);
+            dispose(delegator);
+            return;
+        }
+        IndexDelegator previous = idleDelegators.put(key, delegator);
+        if (previous != null && previous != delegator) {
+            dispose(previous);
+        }
+        evictExcess();
+    }
+
+    /**
+     * Disposes the pooled index of the given key, e.g., before the index is rebuilt.
+     */
+    public synchronized void remove(@Nonnull String key) {
+        IndexDelegator delegator = idleDelegators.remove(checkNotNull(key));
+        if (delegator != null) {
+            dispose(delegator);
+        }
+    }
+
+    /**
+     * Disposes all the pooled indexes.
+     */
+    public synchronized void clear() {
+        List<IndexDelegator> delegators = new ArrayList<>(idleDelegators.values());
+        idleDelegators.clear();
+        for (IndexDelegator delegator : delegators) {
+            dispose(delegator);
+        }
+    }
+
+    public synchronized int size() {
+        return idleDelegators.size();
+    }
+
+    public synchronized String getStatistics() {
+        return String.format("%d pooled index(es), %d KB, %d open file(s), %d reused, %d missed, %d evicted",
+                idleDelegators.size(), getRamBytesUsed() / 1024, getOpenFileCount(), reuseCount.get(),
+                missCount.get(), evictionCount.get());
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private void evictExcess() {
+        long maxBytes = memoryBudget.getAsLong();
+        int maxFiles = fileBudget.getAsInt();
+        Iterator<Map.Entry<String, IndexDelegator>> iterator = idleDelegators.entrySet().iterator();
+        while (iterator.hasNext() && (getRamBytesUsed() > maxBytes || getOpenFileCount() > maxFiles
+                || maxBytes == 0 || maxFiles == 0)) {
+            Map.Entry<String, IndexDelegator> eldest = iterator.next();
+            iterator.remove();
+            logger.debug("... evicting the index of {} from the index pool", eldest.getKey());
+            evictionCount.incrementAndGet();
+            dispose(eldest.getValue());
+        }
+    }
+
+    private long getRamBytesUsed() {
+        long bytes = 0;
+        for (IndexDelegator delegator : idleDelegators.values()) {
+            bytes += delegator.ramBytesUsed();
+        }
+        return bytes;
+    }
+
+    private int getOpenFileCount() {
+        int count = 0;
+        for (IndexDelegator delegator : idleDelegators.values()) {
+            count += delegator.getOpenFileCount();
+        }
+        return count;
+    }
+
+    private static void dispose(IndexDelegator delegator) {
+        try {
+            delegator.dispose();
+        }
+        catch (IOException e) {
+            logger.error("Failed to dispose a pooled index", e);
+        }
+    }
+}
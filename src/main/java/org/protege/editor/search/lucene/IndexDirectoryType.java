@@ -0,0 +1,43 @@
+package org.protege.editor.search.lucene;
+
+/**
+ * The storage of the index files.
+ */
+public enum IndexDirectoryType {
+
+    /**
+     * Lets Lucene pick the implementation for the platform, i.e., memory-mapped files on
+     * 64-bit platforms
+     */
+    AUTO("Chosen by Lucene"),
+
+    /**
+     * Memory-mapped files, read through the operating system page cache without copying
+     */
+    MMAP("Memory-mapped files"),
+
+    /**
+     * Files read with positional NIO reads, for platforms with a limited address space
+     */
+    NIO("NIO file channels"),
+
+    /**
+     * The index is kept in the Java heap and rebuilt when the ontology is opened
+     */
+    HEAP("In-heap memory (not saved)");
+
+    private final String label;
+
+    IndexDirectoryType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,238 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Creates the index documents. All the document producers, i.e., the full index
+ * collector and the change set handlers, use this builder such that the same
+ * entity, annotation or axiom always gets the same set of index fields.
+ */
+public class IndexDocumentBuilder {
+
+    /**
+     * The version of the index fields. Increase the version when a field is added or changed
+     * such that the existing indexes get rebuilt.
+     */
+    public static final String SCHEMA_VERSION = "17";
+
+    private static final int MAX_SORT_KEY_LENGTH = 256;
+
+    private static final int MAX_KEYWORD_LENGTH = 1024;
+
+    /*
+     * A stored text field whose postings include the character offsets of the terms, such
+     * that the matches can be highlighted without analyzing the stored text again.
+     */
+    private static final FieldType TEXT_WITH_OFFSETS = new FieldType(TextField.TYPE_STORED);
+    static {
+        TEXT_WITH_OFFSETS.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TEXT_WITH_OFFSETS.freeze();
+    }
+
+    /*
+     * An unstored companion field that indexes derived terms (e.g., word prefixes, reversed
+     * words, character trigrams or case-preserved words) of a stored text field. The offsets
+     * point into the text of the stored field.
+     */
+    private static final FieldType COMPANION_WITH_OFFSETS = new FieldType(TextField.TYPE_NOT_STORED);
+    static {
+        COMPANION_WITH_OFFSETS.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        COMPANION_WITH_OFFSETS.setOmitNorms(true);
+        COMPANION_WITH_OFFSETS.freeze();
+    }
+
+    private final Document doc = new Document();
+
+    private final boolean useTypeAheadIndex;
+
+    private final boolean useSubstringIndex;
+
+    private final boolean usePhoneticSearch;
+
+    public IndexDocumentBuilder() {
+        useTypeAheadIndex = LuceneIndexPreferences.useTypeAheadIndex();
+        useSubstringIndex = LuceneIndexPreferences.useSubstringIndex();
+        usePhoneticSearch = LuceneIndexPreferences.usePhoneticSearch();
+    }
+
+    /**
+     * Gets the version of the index fields, including the optional fields that are
+     * enabled in the preferences. An index whose recorded version differs from this
+     * version should be rebuilt.
+     */
+    public static String getSchemaVersion() {
+        StringBuilder sb = new StringBuilder(SCHEMA_VERSION);
+        if (LuceneIndexPreferences.useTypeAheadIndex()) {
+            sb.append("+prefix");
+        }
+        if (LuceneIndexPreferences.useSubstringIndex()) {
+            sb.append("+substring");
+        }
+        if (LuceneIndexPreferences.usePhoneticSearch()) {
+            sb.append("+phonetic");
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Index optimization note: Use TextField when the text is used heavily in the search
+     * (including for searching its sub-text / sub-string) and StringField when it is
+     * rarely used or the searching requires its full-text or full-string. Doc values
+     * are used to read a value of many hits without loading the stored document.
+     */
+
+    public IndexDocumentBuilder addEntityIri(String entityIri) {
+        doc.add(new TextField(IndexField.ENTITY_IRI, entityIri, Store.YES));
+        doc.add(new StringField(IndexField.ENTITY_IRI_KEY, entityIri, Store.NO));
+        doc.add(new SortedDocValuesField(IndexField.ENTITY_IRI, new BytesRef(entityIri)));
+        doc.add(new StringField(IndexField.ENTITY_LOCAL_NAME_KEYWORD, createKeyword(getLocalName(entityIri)), Store.NO));
+        return this;
+    }
+
+    /**
+     * Adds the display name of an entity document, with all the companion fields that the
+     * display name searches look up.
+     */
+    public IndexDocumentBuilder addDisplayName(String displayName) {
+        addSubjectDisplayName(displayName);
+        doc.add(new Field(IndexField.DISPLAY_NAME_CASED, displayName, COMPANION_WITH_OFFSETS));
+        if (useTypeAheadIndex) {
+            doc.add(new Field(IndexField.DISPLAY_NAME_PREFIX, displayName, COMPANION_WITH_OFFSETS));
+        }
+        if (useSubstringIndex) {
+            doc.add(new Field(IndexField.DISPLAY_NAME_REVERSED, displayName, COMPANION_WITH_OFFSETS));
+            doc.add(new Field(IndexField.DISPLAY_NAME_TRIGRAM, displayName, COMPANION_WITH_OFFSETS));
+        }
+        if (usePhoneticSearch) {
+            doc.add(new Field(IndexField.PHONETIC_NAME, displayName, COMPANION_WITH_OFFSETS));
+        }
+        String displayNameKeyword = createKeyword(displayName);
+        doc.add(new StringField(IndexField.DISPLAY_NAME_KEYWORD, displayNameKeyword, Store.NO));
+        doc.add(new StringField(IndexField.DISPLAY_NAME_COMPACT, createCompactKeyword(displayNameKeyword), Store.NO));
+        return this;
+    }
+
+    /**
+     * Adds the display name of the subject entity of an annotation or axiom document, for
+     * showing and sorting the search results. The display name searches only match entity
+     * documents, hence the companion fields are not added.
+     */
+    public IndexDocumentBuilder addSubjectDisplayName(String displayName) {
+        doc.add(new Field(IndexField.DISPLAY_NAME, displayName, TEXT_WITH_OFFSETS));
+        doc.add(new SortedDocValuesField(IndexField.DISPLAY_NAME_SORT, new BytesRef(createSortKey(displayName))));
+        return this;
+    }
+
+    public IndexDocumentBuilder addEntityType(String entityType) {
+        doc.add(new StringField(IndexField.ENTITY_TYPE, entityType, Store.YES));
+        return this;
+    }
+
+    /**
+     * Adds the kind of the document, one of the {@link DocKind} values, which the searches
+     * use as a cached filter.
+     */
+    public IndexDocumentBuilder addDocKind(String docKind) {
+        doc.add(new StringField(IndexField.DOC_KIND, docKind, Store.NO));
+        return this;
+    }
+
+    public IndexDocumentBuilder addAnnotationIri(String annotationIri) {
+        doc.add(new TextField(IndexField.ANNOTATION_IRI, annotationIri, Store.YES));
+        doc.add(new StringField(IndexField.ANNOTATION_IRI_KEY, annotationIri, Store.NO));
+        doc.add(new StringField(IndexField.ANNOTATION_PROPERTY_KEY, createKeyword(annotationIri), Store.NO));
+        doc.add(new StringField(IndexField.ANNOTATION_PROPERTY_KEY, createKeyword(getLocalName(annotationIri)), Store.NO));
+        return this;
+    }
+
+    public IndexDocumentBuilder addAnnotationDisplayName(String annotationDisplayName) {
+        doc.add(new TextField(IndexField.ANNOTATION_DISPLAY_NAME, annotationDisplayName, Store.YES));
+        doc.add(new SortedSetDocValuesField(IndexField.ANNOTATION_DISPLAY_NAME, new BytesRef(annotationDisplayName)));
+        doc.add(new StringField(IndexField.ANNOTATION_PROPERTY_KEY, createKeyword(annotationDisplayName), Store.NO));
+        return this;
+    }
+
+    public IndexDocumentBuilder addAnnotationText(String annotationText) {
+        doc.add(new Field(IndexField.ANNOTATION_TEXT, annotationText, TEXT_WITH_OFFSETS));
+        doc.add(new Field(IndexField.ANNOTATION_TEXT_CASED, annotationText, COMPANION_WITH_OFFSETS));
+        String annotationTextKeyword = createKeyword(annotationText);
+        doc.add(new StringField(IndexField.ANNOTATION_TEXT_KEYWORD, annotationTextKeyword, Store.NO));
+        doc.add(new StringField(IndexField.ANNOTATION_TEXT_COMPACT, createCompactKeyword(annotationTextKeyword), Store.NO));
+        if (useTypeAheadIndex) {
+            doc.add(new Field(IndexField.ANNOTATION_TEXT_PREFIX, annotationText, COMPANION_WITH_OFFSETS));
+        }
+        if (useSubstringIndex) {
+            doc.add(new Field(IndexField.ANNOTATION_TEXT_REVERSED, annotationText, COMPANION_WITH_OFFSETS));
+            doc.add(new Field(IndexField.ANNOTATION_TEXT_TRIGRAM, annotationText, COMPANION_WITH_OFFSETS));
+        }
+        return this;
+    }
+
+    public IndexDocumentBuilder addAxiomDisplayName(String axiomDisplayName) {
+        doc.add(new Field(IndexField.AXIOM_DISPLAY_NAME, axiomDisplayName, TEXT_WITH_OFFSETS));
+        return this;
+    }
+
+    public IndexDocumentBuilder addAxiomType(String axiomType) {
+        doc.add(new StringField(IndexField.AXIOM_TYPE, axiomType, Store.YES));
+        doc.add(new SortedSetDocValuesField(IndexField.AXIOM_TYPE, new BytesRef(axiomType)));
+        return this;
+    }
+
+    public Document build() {
+        return doc;
+    }
+
+    /**
+     * Creates the untokenized keyword of a text, which is searched as a whole string by the
+     * regular expression and the whole-words searches. The keyword is lowercased and its
+     * whitespace is collapsed.
+     */
+    static String createKeyword(String text) {
+        String keyword = text.trim().replaceAll("\\s+", " ").toLowerCase();
+        if (keyword.length() > MAX_KEYWORD_LENGTH) {
+            keyword = keyword.substring(0, MAX_KEYWORD_LENGTH);
+        }
+        return keyword;
+    }
+
+    /**
+     * Creates the keyword without any whitespace, which is searched by the whitespace
+     * insensitive searches.
+     *
+     * @param keyword
+     *          A keyword created by {@link #createKeyword(String)}
+     */
+    static String createCompactKeyword(String keyword) {
+        return keyword.replace(" ", "");
+    }
+
+    /**
+     * Gets the local name of an IRI or a CURIE, i.e., the text after its last hash, slash
+     * or colon.
+     */
+    static String getLocalName(String iri) {
+        int separator = Math.max(iri.lastIndexOf('#'), Math.max(iri.lastIndexOf('/'), iri.lastIndexOf(':')));
+        if (separator >= 0 && separator < iri.length() - 1) {
+            return iri.substring(separator + 1);
+        }
+        return iri;
+    }
+
+    private static String createSortKey(String text) {
+        String sortKey = text.toLowerCase();
+        if (sortKey.length() > MAX_SORT_KEY_LENGTH) {
+            sortKey = sortKey.substring(0, MAX_SORT_KEY_LENGTH);
+        }
+        return sortKey;
+    }
+}
@@ -10,12 +10,32 @@ public final class IndexField {
 
     public static final String ENTITY_IRI = "entityIri";
 
+    public static final String ENTITY_IRI_KEY = "entityIriKey";
+
+    public static final String ENTITY_LOCAL_NAME_KEYWORD = "entityLocalNameKeyword";
+
     public static final String DISPLAY_NAME = "displayName";
 
+    public static final String DISPLAY_NAME_SORT = "displayNameSort";
+
+    public static final String DISPLAY_NAME_PREFIX = "displayNamePrefix";
+
+    public static final String DISPLAY_NAME_REVERSED = "displayNameReversed";
+
+    public static final String DISPLAY_NAME_TRIGRAM = "displayNameTrigram";
+
+    public static final String DISPLAY_NAME_KEYWORD = "displayNameKeyword";
+
+    public static final String DISPLAY_NAME_COMPACT = "displayNameCompact";
+
+    public static final String DISPLAY_NAME_CASED = "displayNameCased";
+
     public static final String PHONETIC_NAME = "phoneticName";
 
     public static final String ENTITY_TYPE = "entityType";
 
+    public static final String DOC_KIND = "docKind";
+
     public static final String AXIOM_DISPLAY_NAME = "axiomDisplayName";
 
     public static final String AXIOM_TYPE = "axiomType";
@@ -30,10 +50,26 @@ public final class IndexField {
 
     public static final String ANNOTATION_IRI = "annotationIri";
 
+    public static final String ANNOTATION_IRI_KEY = "annotationIriKey";
+
     public static final String ANNOTATION_DISPLAY_NAME = "annotationDisplayName";
 
+    public static final String ANNOTATION_PROPERTY_KEY = "annotationPropertyKey";
+
     public static final String ANNOTATION_TEXT = "annotationText";
 
+    public static final String ANNOTATION_TEXT_PREFIX = "annotationTextPrefix";
+
+    public static final String ANNOTATION_TEXT_REVERSED = "annotationTextReversed";
+
+    public static final String ANNOTATION_TEXT_TRIGRAM = "annotationTextTrigram";
+
+    public static final String ANNOTATION_TEXT_CASED = "annotationTextCased";
+
+    public static final String ANNOTATION_TEXT_KEYWORD = "annotationTextKeyword";
+
+    public static final String ANNOTATION_TEXT_COMPACT = "annotationTextCompact";
+
     public static final String ANNOTATION_VALUE_IRI = "annotationValueIri";
 
     public static final String FILLER_IRI = "fillerIri";
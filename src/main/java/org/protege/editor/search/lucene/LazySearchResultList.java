@@ -0,0 +1,380 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchMetadata;
+import org.protege.editor.owl.model.search.SearchResult;
+import org.protege.editor.owl.model.search.SearchResultMatch;
+import org.protege.editor.search.lucene.SearchResultFactory.ResultRow;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A read-only list of search results that creates the results on demand. The list
+ * knows the document id and the subject entity of each result up front, so its size
+ * and order are fixed, but the stored fields, the entity rendering and the search
+ * metadata are only loaded when a result is requested. Results are materialized one
+ * page at a time such that a viewport showing neighbouring rows loads its documents
+ * in a single pass. The matches of the highlighted fields are read from the index
+ * postings by {@link MatchOffsetExtractor}. The facet counts of all the results are
+ * available up front.
+ * <p>
+ * The list holds a reference on its index reader, such that the reader stays open after
+ * the index is updated, disposed or evicted from the index pool. The holders of the list,
+ * i.e., the search result cache and the search manager for the shown results, call
+ * {@link #retain()} and {@link #release()}, and the reader is released together with the
+ * last holder, or as soon as every result is materialized. The results that are requested
+ * afterwards show the subject entity only. Once a page is requested, the next page is
+ * loaded by the prefetch executor, off the event dispatch thread.
+ */
+public class LazySearchResultList extends AbstractList<SearchResult> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LazySearchResultList.class);
+
+    private static final int PAGE_SIZE = 64;
+
+    private static final ImmutableList<SearchResultMatch> EMPTY_SEARCH_RESULT_MATCH =
+            ImmutableList.of(new SearchResultMatch("", 0, 0));
+
+    private static final Set<String> ANNOTATION_FIELDS = fieldSet(IndexField.ANNOTATION_DISPLAY_NAME, IndexField.ANNOTATION_TEXT);
+    private static final Set<String> AXIOM_FIELDS = fieldSet(IndexField.AXIOM_TYPE, IndexField.AXIOM_DISPLAY_NAME);
+    private static final Set<String> ENTITY_FIELDS = fieldSet(IndexField.ENTITY_IRI, IndexField.DISPLAY_NAME);
+
+    private final IndexSearcher searcher;
+
+    private final EntityResolver entityResolver;
+
+    private final MatchOffsetExtractor offsetExtractor;
+
+    private final List<ResultRow> rows;
+
+    private final SearchResult[] results;
+
+    private final SearchFacets facets;
+
+    private int materializedCount = 0;
+
+    private int holderCount = 1; // the creator of the list
+
+    private IndexReader reader;
+
+    private Executor prefetcher;
+
+    LazySearchResultList(IndexSearcher searcher, EntityResolver entityResolver, MatchOffsetExtractor offsetExtractor,
+            List<ResultRow> rows, SearchFacets facets) {
+        this.searcher = searcher;
+        this.entityResolver = entityResolver;
+        this.offsetExtractor = offsetExtractor;
+        this.rows = rows;
+        this.results = new SearchResult[rows.size()];
+        this.facets = facets;
+        this.reader = searcher.getIndexReader();
+        reader.incRef();
+        if (rows.isEmpty()) {
+            releaseReader();
+        }
+    }
+
+    /**
+     * Adds a holder of the list, which keeps the index reader of the list open until the
+     * holder calls {@link #release()}.
+     *
+     * @return Returns <code>true</code> if the list was retained, or <code>false</code> if
+     * all its holders had released it already.
+     */
+    public synchronized boolean retain() {
+        if (holderCount == 0) {
+            return false;
+        }
+        holderCount++;
+        return true;
+    }
+
+    /**
+     * Removes a holder of the list. The index reader of the list is released with the last
+     * holder.
+     */
+    public synchronized void release() {
+        if (holderCount > 0 && --holderCount == 0) {
+            releaseReader();
+        }
+    }
+
+    /**
+     * Retains the given results if they are a lazy result list.
+     *
+     * @return Returns <code>false</code> if the results are a lazy result list that was
+     * released already, or <code>true</code> otherwise.
+     */
+    static boolean retainResults(Collection<SearchResult> results) {
+        return !(results instanceof LazySearchResultList) || ((LazySearchResultList) results).retain();
+    }
+
+    /**
+     * Releases the given results if they are a lazy result list.
+     */
+    static void releaseResults(Collection<SearchResult> results) {
+        if (results instanceof LazySearchResultList) {
+            ((LazySearchResultList) results).release();
+        }
+    }
+
+    /**
+     * Sets the executor that loads the page following a requested page, or null to load
+     * the pages on request only.
+     */
+    public synchronized void setPrefetcher(Executor prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Materializes the page of results that contains the given index, e.g., the first page
+     * before the list is shown.
+     */
+    public synchronized void prefetch(int index) {
+        if (index >= 0 && index < results.length && results[index] == null) {
+            materializePage(index / PAGE_SIZE);
+        }
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public synchronized SearchResult get(int index) {
+        SearchResult result = results[index];
+        if (result == null) {
+            materializePage(index / PAGE_SIZE);
+            result = results[index];
+            int nextIndex = (index / PAGE_SIZE + 1) * PAGE_SIZE;
+            if (prefetcher != null && nextIndex < results.length && results[nextIndex] == null) {
+                prefetcher.execute(() -> prefetch(nextIndex));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the subject entity of the result at the given index without materializing
+     * the result.
+     */
+    public OWLEntity getSubject(int index) {
+        return rows.get(index).subject;
+    }
+
+    /**
+     * Gets the search category of the result at the given index without materializing
+     * the result.
+     */
+    public SearchCategory getCategory(int index) {
+        return rows.get(index).category;
+    }
+
+    /**
+     * Gets the number of results per entity type, axiom type and annotation property,
+     * which were counted without materializing the results.
+     */
+    public SearchFacets getFacets() {
+        return facets;
+    }
+
+    public synchronized int getMaterializedCount() {
+        return materializedCount;
+    }
+
+    private void materializePage(int page) {
+        int start = page * PAGE_SIZE;
+        int end = Math.min(start + PAGE_SIZE, rows.size());
+        if (reader == null) {
+            materializeWithoutReader(start, end);
+            return;
+        }
+        try {
+            Map<String, Map<Integer, List<int[]>>> pageOffsets = getMatchOffsets(start, end);
+            for (int i = start; i < end; i++) {
+                if (results[i] == null) {
+                    results[i] = createSearchResult(rows.get(i), pageOffsets);
+                    materializedCount++;
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to load the search result documents", e);
+        }
+        if (materializedCount == results.length) {
+            releaseReader(); // the results no longer need the index
+        }
+    }
+
+    /*
+     * Creates the results of a list whose reader was released, from the subject entities.
+     */
+    private void materializeWithoutReader(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (results[i] == null) {
+                ResultRow row = rows.get(i);
+                String subjectName = entityResolver.getRendering(row.subject);
+                SearchMetadata metadata = new SearchMetadata(row.category, row.category.name(), row.subject,
+                        subjectName, subjectName);
+                results[i] = new SearchResult(metadata, EMPTY_SEARCH_RESULT_MATCH);
+                materializedCount++;
+            }
+        }
+    }
+
+    private void releaseReader() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.decRef();
+        }
+        catch (IOException e) {
+            logger.warn("Unable to release the index reader of the search results", e);
+        }
+        reader = null;
+    }
+
+    /*
+     * Reads the match offsets of all the results in the page, one batch per highlighted field.
+     */
+    private Map<String, Map<Integer, List<int[]>>> getMatchOffsets(int start, int end) throws IOException {
+        Map<String, Set<Integer>> fieldDocIds = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            ResultRow row = rows.get(i);
+            String field = getHighlightField(row.category);
+            if (results[i] == null && field != null) {
+                Set<Integer> docIds = fieldDocIds.get(field);
+                if (docIds == null) {
+                    docIds = new TreeSet<>();
+                    fieldDocIds.put(field, docIds);
+                }
+                docIds.add(row.docId);
+            }
+        }
+        Map<String, Map<Integer, List<int[]>>> offsets = new HashMap<>();
+        for (Map.Entry<String, Set<Integer>> entry : fieldDocIds.entrySet()) {
+            int[] docIds = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            offsets.put(entry.getKey(), offsetExtractor.getOffsets(searcher, getCompanionFields(entry.getKey()), docIds));
+        }
+        return offsets;
+    }
+
+    private SearchResult createSearchResult(ResultRow row, Map<String, Map<Integer, List<int[]>>> pageOffsets) throws IOException {
+        OWLEntity subject = row.subject;
+        String subjectName = entityResolver.getRendering(subject);
+        SearchCategory category = row.category;
+        final SearchMetadata metadata;
+        final String matchedText;
+        switch (category) {
+            case IRI: {
+                Document doc = searcher.doc(row.docId, ENTITY_FIELDS);
+                matchedText = doc.get(IndexField.ENTITY_IRI);
+                metadata = new SearchMetadata(category, "IRI", subject, subjectName, matchedText);
+                break;
+            }
+            case DISPLAY_NAME: {
+                Document doc = searcher.doc(row.docId, ENTITY_FIELDS);
+                matchedText = doc.get(IndexField.DISPLAY_NAME);
+                metadata = new SearchMetadata(category, "DISPLAY NAME", subject, subjectName, matchedText);
+                break;
+            }
+            case ANNOTATION_VALUE: {
+                Document doc = searcher.doc(row.docId, ANNOTATION_FIELDS);
+                matchedText = doc.get(IndexField.ANNOTATION_TEXT);
+                metadata = new SearchMetadata(category, doc.get(IndexField.ANNOTATION_DISPLAY_NAME), subject, subjectName, matchedText);
+                break;
+            }
+            case LOGICAL_AXIOM: {
+                Document doc = searcher.doc(row.docId, AXIOM_FIELDS);
+                matchedText = doc.get(IndexField.AXIOM_DISPLAY_NAME);
+                metadata = new SearchMetadata(category, doc.get(IndexField.AXIOM_TYPE), subject, subjectName, matchedText);
+                break;
+            }
+            case OTHER:
+                matchedText = null;
+                metadata = new SearchMetadata(category, "OTHER", subject, subjectName, "(Found in multiple fields)");
+                break;
+            default:
+                matchedText = null;
+                metadata = new SearchMetadata(category, category.name(), subject, subjectName, subjectName);
+                break;
+        }
+        return new SearchResult(metadata, createSearchResultMatches(row, matchedText, pageOffsets));
+    }
+
+    private ImmutableList<SearchResultMatch> createSearchResultMatches(ResultRow row, String matchedText,
+            Map<String, Map<Integer, List<int[]>>> pageOffsets) {
+        String field = getHighlightField(row.category);
+        if (field == null || matchedText == null || !pageOffsets.containsKey(field)) {
+            return EMPTY_SEARCH_RESULT_MATCH;
+        }
+        List<int[]> offsets = pageOffsets.get(field).get(row.docId);
+        if (offsets == null) {
+            return EMPTY_SEARCH_RESULT_MATCH;
+        }
+        ImmutableList.Builder<SearchResultMatch> matches = ImmutableList.builder();
+        for (int[] offset : offsets) {
+            if (offset[1] <= matchedText.length()) {
+                matches.add(new SearchResultMatch(matchedText.substring(offset[0], offset[1]), offset[0], offset[1]));
+            }
+        }
+        ImmutableList<SearchResultMatch> matchList = matches.build();
+        return matchList.isEmpty() ? EMPTY_SEARCH_RESULT_MATCH : matchList;
+    }
+
+    /*
+     * Gets the given field and its companion fields, which were indexed with offsets into
+     * the text of the given field.
+     */
+    private static List<String> getCompanionFields(String field) {
+        switch (field) {
+            case IndexField.DISPLAY_NAME: return Arrays.asList(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_CASED, IndexField.DISPLAY_NAME_PREFIX,
+                    IndexField.DISPLAY_NAME_REVERSED, IndexField.DISPLAY_NAME_TRIGRAM, IndexField.PHONETIC_NAME);
+            case IndexField.ANNOTATION_TEXT: return Arrays.asList(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_CASED, IndexField.ANNOTATION_TEXT_PREFIX,
+                    IndexField.ANNOTATION_TEXT_REVERSED, IndexField.ANNOTATION_TEXT_TRIGRAM);
+            default: return Collections.singletonList(field);
+        }
+    }
+
+    /*
+     * Gets the field that was indexed with offsets for the given search category, or null if
+     * the matches of the category are not highlighted.
+     */
+    private static String getHighlightField(SearchCategory category) {
+        switch (category) {
+            case DISPLAY_NAME: return IndexField.DISPLAY_NAME;
+            case ANNOTATION_VALUE: return IndexField.ANNOTATION_TEXT;
+            case LOGICAL_AXIOM: return IndexField.AXIOM_DISPLAY_NAME;
+            default: return null;
+        }
+    }
+
+    private static Set<String> fieldSet(String... fields) {
+        Set<String> fieldSet = new HashSet<>();
+        Collections.addAll(fieldSet, fields);
+        return Collections.unmodifiableSet(fieldSet);
+    }
+}
@@ -41,6 +41,15 @@ public class LuceneIndexPreferences {
     public static final String BASE_DIR = "BASE_DIR";
     public static final String INDEX_RECORD_KEYS = "INDEX_RECORD_KEYS";
     public static final String MAX_SIZE_FOR_IN_MEMORY_STORING = "MAX_SIZE_FOR_IN_MEMORY_STORING";
+    public static final String QUERY_TIME_BUDGET = "QUERY_TIME_BUDGET";
+    public static final String INDEX_POOL_MEMORY_BUDGET = "INDEX_POOL_MEMORY_BUDGET";
+    public static final String INDEX_POOL_FILE_BUDGET = "INDEX_POOL_FILE_BUDGET";
+    public static final String DIRECTORY_TYPE = "DIRECTORY_TYPE";
+    public static final String PRELOAD_INDEX = "PRELOAD_INDEX";
+    public static final String SUGGESTION_RANKING = "SUGGESTION_RANKING";
+    public static final String USE_TYPE_AHEAD_INDEX = "UseTypeAheadIndex";
+    public static final String USE_SUBSTRING_INDEX = "UseSubstringIndex";
+    public static final String USE_PHONETIC_SEARCH = "UsePhoneticSearch";
 
     public static final String PREFIX_INDEX_DIR = "ProtegeIndex";
 
@@ -157,6 +166,166 @@ public class LuceneIndexPreferences {
         return getPreferences().getInt(MAX_SIZE_FOR_IN_MEMORY_STORING, 20);
     }
 
+    /**
+     * Checks if the index stores the word prefixes of the display names and annotation
+     * texts, such that type-ahead searches become term lookups. The option takes effect
+     * when the index is rebuilt.
+     *
+     * @return Returns <code>true</code> if the word prefixes are indexed, or
+     * <code>false</code> otherwise.
+     */
+    public static boolean useTypeAheadIndex() {
+        return getPreferences().getBoolean(USE_TYPE_AHEAD_INDEX, true);
+    }
+
+    public static void setTypeAheadIndex(boolean useTypeAheadIndex) {
+        getPreferences().putBoolean(USE_TYPE_AHEAD_INDEX, useTypeAheadIndex);
+    }
+
+    /**
+     * Checks if the index stores the reversed words and the character trigrams of the
+     * display names and annotation texts, such that suffix and infix searches avoid
+     * scanning the term dictionary. The option takes effect when the index is rebuilt.
+     *
+     * @return Returns <code>true</code> if the substring fields are indexed, or
+     * <code>false</code> otherwise.
+     */
+    public static boolean useSubstringIndex() {
+        return getPreferences().getBoolean(USE_SUBSTRING_INDEX, true);
+    }
+
+    public static void setSubstringIndex(boolean useSubstringIndex) {
+        getPreferences().putBoolean(USE_SUBSTRING_INDEX, useSubstringIndex);
+    }
+
+    /**
+     * Checks if the display names are also searched by their phonetic codes, such that a
+     * misspelled name that sounds alike is found. The index stores the phonetic codes only
+     * while the option is enabled and the option takes effect when the index is rebuilt.
+     *
+     * @return Returns <code>true</code> if the phonetic search is enabled, or
+     * <code>false</code> otherwise.
+     */
+    public static boolean usePhoneticSearch() {
+        return getPreferences().getBoolean(USE_PHONETIC_SEARCH, false);
+    }
+
+    public static void setPhoneticSearch(boolean usePhoneticSearch) {
+        getPreferences().putBoolean(USE_PHONETIC_SEARCH, usePhoneticSearch);
+    }
+
+    /**
+     * Sets the maximum running time of a single search query. A query that runs out
+     * of time stops and returns the results found so far.
+     *
+     * @param timeBudget
+     *          The time budget in milliseconds, or 0 for no limit
+     */
+    public static void setQueryTimeBudget(int timeBudget) {
+        getPreferences().putInt(QUERY_TIME_BUDGET, timeBudget);
+    }
+
+    /**
+     * Gets the maximum running time of a single search query.
+     *
+     * @return The time budget in milliseconds, or 0 for no limit.
+     */
+    public static int getQueryTimeBudget() {
+        return getPreferences().getInt(QUERY_TIME_BUDGET, 3000);
+    }
+
+    /**
+     * Gets the storage of the index files. An unknown stored value falls back to
+     * {@link IndexDirectoryType#AUTO}. The option takes effect when an index is opened.
+     */
+    public static IndexDirectoryType getDirectoryType() {
+        String directoryType = getPreferences().getString(DIRECTORY_TYPE, IndexDirectoryType.AUTO.name());
+        try {
+            return IndexDirectoryType.valueOf(directoryType);
+        }
+        catch (IllegalArgumentException e) {
+            return IndexDirectoryType.AUTO;
+        }
+    }
+
+    public static void setDirectoryType(@Nonnull IndexDirectoryType directoryType) {
+        getPreferences().putString(DIRECTORY_TYPE, directoryType.name());
+    }
+
+    /**
+     * Gets the order of the autocomplete suggestions. An unknown stored value falls back to
+     * {@link SuggestionRanking#USAGE}. The option takes effect when the suggester is next
+     * rebuilt.
+     */
+    public static SuggestionRanking getSuggestionRanking() {
+        String ranking = getPreferences().getString(SUGGESTION_RANKING, SuggestionRanking.USAGE.name());
+        try {
+            return SuggestionRanking.valueOf(ranking);
+        }
+        catch (IllegalArgumentException e) {
+            return SuggestionRanking.USAGE;
+        }
+    }
+
+    public static void setSuggestionRanking(@Nonnull SuggestionRanking ranking) {
+        getPreferences().putString(SUGGESTION_RANKING, ranking.name());
+    }
+
+    /**
+     * Checks if the term dictionary and doc values files are read into the page cache when
+     * an index is opened, such that the first searches do not wait for the disk.
+     *
+     * @return Returns <code>true</code> if the index files are preloaded, or
+     * <code>false</code> otherwise.
+     */
+    public static boolean preloadIndex() {
+        return getPreferences().getBoolean(PRELOAD_INDEX, false);
+    }
+
+    public static void setPreloadIndex(boolean preloadIndex) {
+        getPreferences().putBoolean(PRELOAD_INDEX, preloadIndex);
+    }
+
+    /**
+     * Sets the heap memory that the indexes of the recently used ontologies may keep while
+     * they stay open in the index pool.
+     *
+     * @param memoryBudget
+     *          The memory budget in megabytes, or 0 to close the indexes right away
+     */
+    public static void setIndexPoolMemoryBudget(int memoryBudget) {
+        getPreferences().putInt(INDEX_POOL_MEMORY_BUDGET, memoryBudget);
+    }
+
+    /**
+     * Gets the heap memory that the indexes in the index pool may keep.
+     *
+     * @return The memory budget in megabytes, or 0 if the indexes are not pooled.
+     */
+    public static int getIndexPoolMemoryBudget() {
+        return getPreferences().getInt(INDEX_POOL_MEMORY_BUDGET, 256);
+    }
+
+    /**
+     * Sets the number of files that the indexes of the recently used ontologies may keep
+     * open while they stay in the index pool.
+     *
+     * @param fileBudget
+     *          The number of open files, or 0 to close the indexes right away
+     */
+    public static void setIndexPoolFileBudget(int fileBudget) {
+        getPreferences().putInt(INDEX_POOL_FILE_BUDGET, fileBudget);
+    }
+
+    /**
+     * Gets the number of files that the indexes in the index pool may keep open.
+     *
+     * @return The number of open files, or 0 if the indexes are not pooled.
+     */
+    public static int getIndexPoolFileBudget() {
+        return getPreferences().getInt(INDEX_POOL_FILE_BUDGET, 256);
+    }
+
     /**
      * Sets to use a custom directory location to store the index files.
      */
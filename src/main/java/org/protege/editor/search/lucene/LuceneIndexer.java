@@ -9,9 +9,6 @@ import org.protege.editor.owl.ui.renderer.context.OWLObjectRenderingContext;
 import org.protege.editor.owl.ui.renderer.styledstring.OWLObjectStyledStringRenderer;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field.Store;
-import org.apache.lucene.document.StringField;
-import org.apache.lucene.document.TextField;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
@@ -24,6 +21,7 @@ import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
 import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLDifferentIndividualsAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointDataPropertiesAxiom;
@@ -108,64 +106,81 @@ public class LuceneIndexer extends AbstractLuceneIndexer {
                 }
             }
 
-            /*
-             * Index optimization note: Use TextField when the text is used heavily in the search
-             * (including for searching its sub-text / sub-string) and StringField when it is
-             * rarely used or the searching requires its full-text or full-string.
-             */
-
             @Override
             public void visit(OWLClass cls) {
-                Document doc = new Document();
-                doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(cls), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(cls), Store.YES));
-                doc.add(new StringField(IndexField.ENTITY_TYPE, getType(cls), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(cls))
+                        .addDisplayName(getDisplayName(cls))
+                        .addEntityType(getType(cls))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
                 documents.add(doc);
             }
 
             @Override
             public void visit(OWLObjectProperty property) {
-                Document doc = new Document();
-                doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(property), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(property), Store.YES));
-                doc.add(new StringField(IndexField.ENTITY_TYPE, getType(property), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(property))
+                        .addDisplayName(getDisplayName(property))
+                        .addEntityType(getType(property))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
                 documents.add(doc);
             }
 
             public void visit(OWLDataProperty property) {
-                Document doc = new Document();
-                doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(property), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(property), Store.YES));
-                doc.add(new StringField(IndexField.ENTITY_TYPE, getType(property), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(property))
+                        .addDisplayName(getDisplayName(property))
+                        .addEntityType(getType(property))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
                 documents.add(doc);
             }
 
             public void visit(OWLNamedIndividual individual) {
-                Document doc = new Document();
-                doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(individual), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(individual), Store.YES));
-                doc.add(new StringField(IndexField.ENTITY_TYPE, getType(individual), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(individual))
+                        .addDisplayName(getDisplayName(individual))
+                        .addEntityType(getType(individual))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
                 documents.add(doc);
             }
 
             public void visit(OWLAnnotationProperty property) {
-                Document doc = new Document();
-                doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(property), Store.YES));
-                doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(property), Store.YES));
-                doc.add(new StringField(IndexField.ENTITY_TYPE, getType(property), Store.YES));
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(property))
+                        .addDisplayName(getDisplayName(property))
+                        .addEntityType(getType(property))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
+                documents.add(doc);
+            }
+
+            public void visit(OWLDatatype datatype) {
+                Document doc = new IndexDocumentBuilder()
+                        .addEntityIri(getEntityId(datatype))
+                        .addDisplayName(getDisplayName(datatype))
+                        .addEntityType(getType(datatype))
+                        .addDocKind(DocKind.ENTITY)
+                        .build();
                 documents.add(doc);
             }
 
             @Override
             public void visit(OWLAnnotationAssertionAxiom axiom) {
                 if (axiom.getSubject() instanceof IRI) {
-                    Document doc = new Document();
                     OWLEntity entity = getOWLEntity((IRI) axiom.getSubject());
-                    doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(entity), Store.YES));
-                    doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(entity), Store.YES));
-                    doc.add(new TextField(IndexField.ANNOTATION_IRI, getEntityId(axiom.getProperty()), Store.YES));
-                    doc.add(new TextField(IndexField.ANNOTATION_DISPLAY_NAME, getDisplayName(axiom.getProperty()), Store.YES));
-                    doc.add(new TextField(IndexField.ANNOTATION_TEXT, getAnnotationText(axiom.getAnnotation()), Store.YES));
+                    Document doc = new IndexDocumentBuilder()
+                            .addEntityIri(getEntityId(entity))
+                            .addSubjectDisplayName(getDisplayName(entity))
+                            .addEntityType(getType(entity))
+                            .addDocKind(DocKind.ANNOTATION)
+                            .addAnnotationIri(getEntityId(axiom.getProperty()))
+                            .addAnnotationDisplayName(getDisplayName(axiom.getProperty()))
+                            .addAnnotationText(getAnnotationText(axiom.getAnnotation()))
+                            .build();
                     documents.add(doc);
                 }
             }
@@ -206,14 +221,17 @@ public class LuceneIndexer extends AbstractLuceneIndexer {
 
             //@formatter:on
             private void visitLogicalAxiom(OWLAxiom axiom) {
-                Document doc = new Document();
                 OWLObject subject = new AxiomSubjectProvider().getSubject(axiom);
                 if (subject instanceof OWLEntity) {
                     OWLEntity entity = (OWLEntity) subject;
-                    doc.add(new TextField(IndexField.ENTITY_IRI, getEntityId(entity), Store.YES));
-                    doc.add(new TextField(IndexField.DISPLAY_NAME, getDisplayName(entity), Store.YES));
-                    doc.add(new TextField(IndexField.AXIOM_DISPLAY_NAME, getDisplayName(axiom), Store.YES));
-                    doc.add(new StringField(IndexField.AXIOM_TYPE, getType(axiom), Store.YES));
+                    Document doc = new IndexDocumentBuilder()
+                            .addEntityIri(getEntityId(entity))
+                            .addSubjectDisplayName(getDisplayName(entity))
+                            .addEntityType(getType(entity))
+                            .addDocKind(DocKind.AXIOM)
+                            .addAxiomDisplayName(getDisplayName(axiom))
+                            .addAxiomType(getType(axiom))
+                            .build();
                     documents.add(doc);
                 }
             }
@@ -11,14 +11,22 @@ import org.protege.editor.owl.model.search.SearchResultHandler;
 import org.protege.editor.owl.model.search.SearchStringParser;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.store.RAMDirectory;
+import org.semanticweb.owlapi.model.EntityType;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.SetOntologyID;
 import org.semanticweb.owlapi.util.ProgressMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,22 +34,30 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.swing.SwingUtilities;
 
 import com.google.common.base.Stopwatch;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Author: Josef Hardi <josef.hardi@stanford.edu><br>
  * Stanford University<br>
@@ -56,26 +72,58 @@ public class LuceneSearchManager extends LuceneSearcher {
 
     private Set<SearchCategory> categories = new HashSet<>();
 
-    private ExecutorService service = Executors.newSingleThreadExecutor();
+    private Set<EntityType<?>> entityTypes = new HashSet<>();
+
+    private final SearchTaskScheduler scheduler = new SearchTaskScheduler();
 
     private AtomicLong lastSearchId = new AtomicLong(0);
 
+    private volatile SearchFacets lastSearchFacets = SearchFacets.EMPTY;
+
+    private Collection<SearchResult> shownResults = Collections.emptyList(); // guarded by this
+
+    private final AtomicBoolean indexStale = new AtomicBoolean(true);
+
+    private final SearchDebouncer debouncer = new SearchDebouncer();
+
     private SearchStringParser searchStringParser = new LuceneStringParser();
 
     private AbstractLuceneIndexer indexer;
 
-    private IndexDelegator indexDelegator;
+    private volatile IndexDelegator indexDelegator;
+
+    private String indexKey; // the key of the current index in the index pool
 
-    private Directory indexDirectory;
+    private final IndexDelegatorPool indexPool = new IndexDelegatorPool();
+
+    private volatile Directory indexDirectory;
 
     private OWLOntologyChangeListener ontologyChangeListener;
 
     private OWLModelManagerListener modelManagerListener;
 
-    private OWLOntology currentActiveOntology;
+    private volatile OWLOntology currentActiveOntology;
 
     private final List<ProgressMonitor> progressMonitors = new ArrayList<>();
 
+    private final SearchResultCache resultCache = new SearchResultCache();
+
+    private final SearchRefinement searchRefinement = new SearchRefinement();
+
+    private final AutocompleteSuggester suggester = new AutocompleteSuggester(this::getSuggestionWeight);
+
+    private volatile SuggestionRanking suggestionRanking;
+
+    private final AtomicBoolean suggesterUpdatePending = new AtomicBoolean(false);
+
+    private RenderingCache renderingCache;
+
+    private List<SearchQueryBuilder> queryBuilders;
+
+    private final ProgressThrottle indexingProgressThrottle = new ProgressThrottle(this::showIndexingProgress);
+
+    private final ProgressThrottle searchingProgressThrottle = new ProgressThrottle(this::showSearchingProgress);
+
     public LuceneSearchManager() {
         // NO-OP
     }
@@ -84,18 +132,25 @@ public class LuceneSearchManager extends LuceneSearcher {
     public void initialise() {
         editorKit = getEditorKit();
         indexer = new LuceneIndexer(editorKit);
+        renderingCache = new RenderingCache(editorKit.getOWLModelManager());
+        queryBuilders = LuceneSearchQueryBuilder.createBuilders(this);
         categories.add(SearchCategory.DISPLAY_NAME);
         categories.add(SearchCategory.IRI);
         categories.add(SearchCategory.ANNOTATION_VALUE);
         categories.add(SearchCategory.LOGICAL_AXIOM);
         ontologyChangeListener = new OWLOntologyChangeListener() {
             public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+                renderingCache.clear(); // changes to annotations may alter the entity rendering
+                invalidatePooledIndexes(changes);
                 updateIndex(changes);
             }
         };
         modelManagerListener = new OWLModelManagerListener() {
             public void handleChange(OWLModelManagerChangeEvent event) {
                 OWLOntology activeOntology = editorKit.getOWLModelManager().getActiveOntology();
+                if (isCacheChangingEvent(event) || isCacheMutatingEvent(event)) {
+                    renderingCache.clear();
+                }
                 if (isCacheChangingEvent(event)) {
                     if (currentActiveOntology != null) {
                         /*
@@ -115,8 +170,16 @@ public class LuceneSearchManager extends LuceneSearcher {
                     }
                 }
                 else if (isCacheMutatingEvent(event)) {
+                    indexPool.clear(); // the pooled indexes hold the old renderings
                     rebuildIndex(activeOntology);
                 }
+                else if (isOntologyReloadedEvent(event)) {
+                    indexPool.clear(); // the reloaded ontology may be imported by the pooled ones
+                    if (activeOntology != null && getIndexKey(activeOntology).equals(indexKey)) {
+                        currentActiveOntology = activeOntology;
+                        rebuildIndex(activeOntology);
+                    }
+                }
                 else if (isCacheSavingEvent(event)) {
                     saveIndex(activeOntology);
                 }
@@ -144,11 +207,50 @@ public class LuceneSearchManager extends LuceneSearcher {
         return event.isType(EventType.ONTOLOGY_SAVED);
     }
 
+    private boolean isOntologyReloadedEvent(OWLModelManagerChangeEvent event) {
+        return event.isType(EventType.ONTOLOGY_RELOADED);
+    }
+
+    /*
+     * Disposes the pooled indexes that the changes make stale, since only the index of the
+     * active ontology gets updated. A pooled index is stale when one of the changed ontologies
+     * is in the imports closure of its ontology. An ontology ID change also changes the key of
+     * the index, hence the pooled index under the old key is disposed and the key of the
+     * active index follows the new ID.
+     */
+    private void invalidatePooledIndexes(List<? extends OWLOntologyChange> changes) {
+        Set<OWLOntology> changedOntologies = new HashSet<>();
+        for (OWLOntologyChange change : changes) {
+            changedOntologies.add(change.getOntology());
+            if (change instanceof SetOntologyID) {
+                String originalKey = ((SetOntologyID) change).getOriginalOntologyID().toString();
+                if (originalKey.equals(indexKey)) {
+                    indexKey = getIndexKey(change.getOntology());
+                }
+                else {
+                    indexPool.remove(originalKey);
+                }
+            }
+        }
+        if (indexPool.size() == 0) {
+            return;
+        }
+        for (OWLOntology ontology : editorKit.getOWLModelManager().getOntologies()) {
+            String key = getIndexKey(ontology);
+            if (!key.equals(indexKey) && !Collections.disjoint(ontology.getImportsClosure(), changedOntologies)) {
+                indexPool.remove(key);
+            }
+        }
+    }
+
     private void loadIndex(OWLOntology activeOntology) {
         if (activeOntology != null && !activeOntology.isEmpty()) {
             logger.info("Initializing index");
             currentActiveOntology = activeOntology;
-            loadIndexDirectory(activeOntology, false); // false = reload index directory, if any
+            boolean opened = loadIndexDirectory(activeOntology, false); // false = reload index directory, if any
+            if (opened && LuceneIndexPreferences.preloadIndex()) {
+                scheduler.submitUpdate(this::preloadingIndex);
+            }
             markIndexAsStale();
         }
     }
@@ -157,14 +259,14 @@ public class LuceneSearchManager extends LuceneSearcher {
         if (targetOntology != null && !targetOntology.isEmpty()) {
             logger.info("Rebuilding index");
             loadIndexDirectory(targetOntology, true); // true = recreate the index directory
-            service.submit(this::buildingIndex);
+            scheduler.submitBuild(this::buildingIndex);
         }
     }
 
     private void updateIndex(List<? extends OWLOntologyChange> changes) {
         if (indexDelegator != null) {
             logger.info("Updating index from " + changes.size() + " change(s)");
-            service.submit(() -> updatingIndex(changes));
+            scheduler.submitUpdate(() -> updatingIndex(changes));
         }
     }
 
@@ -174,6 +276,7 @@ public class LuceneSearchManager extends LuceneSearcher {
             indexer.doRemove(indexDelegator, removeChangeSet);
             AddChangeSet addChangeSet = AddChangeSet.create(changes, new AddChangeSetHandler(editorKit));
             indexer.doAppend(indexDelegator, addChangeSet);
+            warmingIndex();
         }
         catch (IOException e) {
             logger.error("... update index failed");
@@ -181,8 +284,154 @@ public class LuceneSearchManager extends LuceneSearcher {
         }
     }
 
+    /*
+     * Reads the term dictionary and doc values files of an existing index into the page
+     * cache, such that the first searches after opening the ontology do not wait for the disk.
+     */
+    private void preloadingIndex() {
+        IndexDelegator delegator = indexDelegator;
+        if (delegator == null || !delegator.indexExists()) {
+            return;
+        }
+        try {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            long bytes = delegator.preloadFiles();
+            logger.info("... preloaded {} KB of index files in {} ms", bytes / 1024,
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        }
+        catch (IOException e) {
+            logger.warn("... preload index failed", e);
+        }
+    }
+
+    /*
+     * Prepares the latest index reader for searching: caches the filter bitsets and rebuilds
+     * the autocomplete suggester, which skips the rebuild if it is current or if it was
+     * rebuilt recently.
+     */
+    private void warmingIndex() {
+        IndexDelegator delegator = indexDelegator;
+        if (delegator == null || !delegator.indexExists()) {
+            return;
+        }
+        try {
+            delegator.refreshSearcher();
+            delegator.warmFilterCache();
+            IndexSearcher searcher = delegator.acquireSearcher();
+            try {
+                updatingSuggester(searcher);
+            }
+            finally {
+                delegator.releaseSearcher(searcher);
+            }
+        }
+        catch (IOException e) {
+            logger.error("... warm up index failed", e);
+        }
+    }
+
+    /*
+     * Rebuilds a stale autocomplete suggester, e.g., one whose rebuild was skipped by the
+     * minimum rebuild interval after an ontology change.
+     */
+    private void rebuildingSuggester() {
+        IndexDelegator delegator = indexDelegator;
+        try {
+            if (delegator == null || !delegator.indexExists()) {
+                return;
+            }
+            delegator.refreshSearcher();
+            IndexSearcher searcher = delegator.acquireSearcher();
+            try {
+                updatingSuggester(searcher);
+            }
+            finally {
+                delegator.releaseSearcher(searcher);
+            }
+        }
+        catch (IOException e) {
+            logger.error("... rebuild autocomplete suggester failed", e);
+        }
+        finally {
+            suggesterUpdatePending.set(false); // a failed rebuild can be requested again
+        }
+    }
+
+    /*
+     * Rebuilds the autocomplete suggester from the index reader of the given searcher, which
+     * stays open during the rebuild.
+     */
+    private void updatingSuggester(IndexSearcher searcher) throws IOException {
+        suggesterUpdatePending.set(false);
+        IndexReader reader = searcher.getIndexReader();
+        long version = ((DirectoryReader) reader).getVersion();
+        SuggestionRanking ranking = LuceneIndexPreferences.getSuggestionRanking();
+        if (ranking != suggestionRanking) {
+            suggestionRanking = ranking;
+            suggester.invalidate();
+        }
+        suggester.build(reader, version);
+    }
+
+    private long getSuggestionWeight(String entityIri, int documentCount) {
+        switch (suggestionRanking) {
+            case REFERENCES:
+                return documentCount;
+            case ALPHABETICAL:
+                return 0;
+            default:
+                return suggester.getUsageCount(entityIri);
+        }
+    }
+
+    /**
+     * Gets the entities whose display name starts with the given prefix, the most popular
+     * ones first. The lookup reads the in-memory autocomplete suggester only and it returns
+     * no entities until the suggester is built in the background.
+     *
+     * @param prefix
+     *          The typed prefix
+     * @param limit
+     *          The maximum number of entities
+     * @return A list of entities
+     */
+    public List<OWLEntity> getSuggestions(@Nonnull String prefix, int limit) {
+        IndexDelegator delegator = indexDelegator;
+        if (delegator == null || !delegator.indexExists()) {
+            return Collections.emptyList();
+        }
+        try {
+            boolean rankingChanged = LuceneIndexPreferences.getSuggestionRanking() != suggestionRanking;
+            if ((rankingChanged || suggester.isRebuildDue(delegator.getReaderVersion()))
+                    && suggesterUpdatePending.compareAndSet(false, true)) {
+                scheduler.submitUpdate(this::rebuildingSuggester);
+            }
+        }
+        catch (IOException e) {
+            logger.error("... check autocomplete suggester failed", e);
+        }
+        if (!suggester.isBuilt()) {
+            return Collections.emptyList();
+        }
+        EntityResolver entityResolver = new EntityResolver(editorKit, renderingCache);
+        List<OWLEntity> entities = new ArrayList<>();
+        for (AutocompleteSuggester.Suggestion suggestion : suggester.lookup(prefix, limit)) {
+            entityResolver.getEntity(suggestion.getEntityIri()).ifPresent(entities::add);
+        }
+        return entities;
+    }
+
+    /**
+     * Records that the user picked the entity from the suggestions, which ranks the entity
+     * higher in the later suggestions once the suggester is rebuilt.
+     */
+    public void recordSuggestionUsage(@Nonnull OWLEntity entity) {
+        suggester.recordUsage(entity.getIRI().toString());
+    }
+
     private void markIndexAsStale() {
-        lastSearchId.set(0);
+        indexStale.set(true);
+        lastSearchId.incrementAndGet(); // supersedes the searches of the previous index
     }
 
     private void saveIndex(OWLOntology targetOntology) {
@@ -198,7 +447,28 @@ public class LuceneSearchManager extends LuceneSearcher {
     public void dispose() {
         editorKit.getOWLModelManager().removeOntologyChangeListener(ontologyChangeListener);
         editorKit.getModelManager().removeListener(modelManagerListener);
+        logger.info("Search result cache: {}", resultCache.getStatistics());
+        logger.info("Rendering cache: {}", renderingCache.getStatistics());
+        logger.info("Task scheduler: {}", scheduler.getStatistics());
+        logger.info("Autocomplete suggester: {}", suggester.getStatistics());
+        logger.info("Search debouncer: {}", debouncer.getStatistics());
+        logger.info("Index pool: {}", indexPool.getStatistics());
+        debouncer.shutdown();
+        scheduler.shutdown();
         disposeIndexDelegator();
+        indexPool.clear();
+        resultCache.invalidate();
+        setShownResults(Collections.emptyList());
+    }
+
+    /*
+     * Keeps the index reader of the results handed to the search result handler open until
+     * the next results replace them.
+     */
+    private synchronized void setShownResults(Collection<SearchResult> results) {
+        LazySearchResultList.retainResults(results);
+        LazySearchResultList.releaseResults(shownResults);
+        shownResults = results;
     }
 
     private void disposeIndexDelegator() {
@@ -229,6 +499,38 @@ public class LuceneSearchManager extends LuceneSearcher {
         return indexDelegator.getSearcher();
     }
 
+    @Override
+    protected IndexSearcher acquireIndexSearcher() throws IOException {
+        IndexDelegator delegator = indexDelegator;
+        if (delegator == null) {
+            throw new RuntimeException("No index was loaded");
+        }
+        delegator.refreshSearcher();
+        return delegator.acquireSearcher();
+    }
+
+    @Override
+    public boolean hasIndexField(String field) {
+        IndexDelegator delegator = indexDelegator;
+        return delegator != null && delegator.hasField(field);
+    }
+
+    /**
+     * Gets the namespace of a prefix name from the prefixes of the active ontology document.
+     */
+    @Override
+    public Optional<String> getPrefixNamespace(String prefixName) {
+        OWLOntology ontology = editorKit.getOWLModelManager().getActiveOntology();
+        if (ontology == null) {
+            return Optional.empty();
+        }
+        OWLDocumentFormat format = ontology.getOWLOntologyManager().getOntologyFormat(ontology);
+        if (format == null || !format.isPrefixOWLOntologyFormat()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(format.asPrefixOWLOntologyFormat().getPrefix(prefixName + ":"));
+    }
+
     @Override
     public boolean isSearchType(SearchCategory category) {
         return categories.contains(category);
@@ -240,45 +542,169 @@ public class LuceneSearchManager extends LuceneSearcher {
         this.categories.addAll(categories);
     }
 
+    /**
+     * Restricts the search results to the entities of the given types, e.g., to the classes
+     * only. The restriction is applied as a cached filter. An empty collection removes the
+     * restriction.
+     */
+    public void setEntityTypes(@Nonnull Collection<EntityType<?>> entityTypes) {
+        this.entityTypes = new HashSet<>(entityTypes);
+    }
+
+    /**
+     * Searches the index for the given search string. The search is debounced (see
+     * {@link SearchDebouncer}): a search that is followed by another one within a short
+     * delay is replaced before its string is parsed, and the running search is superseded
+     * at once. The index state is checked on the calling thread, i.e., the event dispatch
+     * thread that also loads and swaps the indexes, and only the parsing and the submission
+     * of the search are debounced.
+     */
     @Override
     public void performSearch(String searchString, SearchResultHandler searchResultHandler) {
         try {
-            if (lastSearchId.getAndIncrement() == 0) {
-                if (!DirectoryReader.indexExists(getIndexDirectory())) {
-                    logger.info("Building index");
-                    service.submit(this::buildingIndex);
-                }
-            }
-            List<SearchQuery> searchQueries = prepareQuery(searchString);
-            service.submit(new SearchCallable(lastSearchId.incrementAndGet(), searchQueries, searchResultHandler));
+            checkIndexState();
         }
         catch (IOException e) {
             logger.error("Failed to perform search", e);
+            return;
+        }
+        final long searchId = lastSearchId.incrementAndGet();
+        final Set<SearchCategory> searchCategories = new HashSet<>(categories);
+        final Set<EntityType<?>> searchEntityTypes = entityTypes;
+        long delay = debouncer.submit(() -> startSearch(searchId, searchString, searchCategories, searchEntityTypes,
+                searchResultHandler));
+        logger.debug("Scheduled search {} in {} ms", searchId, delay);
+    }
+
+    /*
+     * Builds, rebuilds or warms up the index of the active ontology once after it was loaded
+     */
+    private void checkIndexState() throws IOException {
+        if (indexDelegator != null && indexStale.compareAndSet(true, false)) {
+            if (!DirectoryReader.indexExists(getIndexDirectory())) {
+                logger.info("Building index");
+                scheduler.submitBuild(this::buildingIndex);
+            }
+            else if (!indexDelegator.isSchemaCurrent()) {
+                logger.info("Index was built with older index fields");
+                rebuildIndex(currentActiveOntology);
+            }
+            else {
+                scheduler.submitUpdate(this::warmingIndex); // warm up the filters and the suggester of a loaded index
+            }
+        }
+    }
+
+    /*
+     * Runs on the debouncer thread, hence it does not change the index state
+     */
+    private void startSearch(long searchId, String searchString, Set<SearchCategory> searchCategories,
+            Set<EntityType<?>> searchEntityTypes, SearchResultHandler searchResultHandler) {
+        if (searchId != lastSearchId.get()) {
+            return; // superseded before it started
+        }
+        SearchInput searchInput = searchStringParser.parse(searchString);
+        List<SearchQuery> searchQueries = prepareQuery(searchInput, searchCategories, searchEntityTypes);
+        scheduler.submitSearch(new SearchCallable(searchId, searchInput, searchCategories,
+                getRestrictionKey(searchEntityTypes), searchQueries, searchResultHandler, null));
+    }
+
+    /**
+     * Gets the facet counts of the results that were last handed to a search result
+     * handler. A handler can also read them from its results with
+     * {@link SearchFacets#of(Collection)}.
+     */
+    public SearchFacets getLastSearchFacets() {
+        return lastSearchFacets;
+    }
+
+    /**
+     * Runs the search with profiling, bypassing the search result cache, and passes the
+     * profile to the given handler once the search finished. The profile report is also
+     * written to the log. The profiled search neither supersedes the running search nor
+     * gets superseded by the next keystroke, hence the handler always receives the profile,
+     * although the query time budget still applies.
+     *
+     * @param searchString
+     *          The search string
+     * @param profileHandler
+     *          Receives the profile, on the event dispatch thread
+     * @return Returns <code>true</code> if the search was started, or <code>false</code>
+     * if no index is loaded.
+     */
+    public boolean performProfiledSearch(@Nonnull String searchString, @Nonnull Consumer<QueryProfile> profileHandler) {
+        checkNotNull(searchString);
+        checkNotNull(profileHandler);
+        IndexDelegator delegator = indexDelegator;
+        if (delegator == null || !delegator.indexExists()) {
+            return false;
         }
+        SearchInput searchInput = searchStringParser.parse(searchString);
+        Set<SearchCategory> searchCategories = new HashSet<>(categories);
+        List<SearchQuery> searchQueries = prepareQuery(searchInput, searchCategories, entityTypes);
+        QueryProfile profile = new QueryProfile(searchString);
+        scheduler.submitSearch(new SearchCallable(lastSearchId.get(), searchInput, searchCategories,
+                getRestrictionKey(entityTypes), searchQueries, results -> profileHandler.accept(profile), profile));
+        return true;
     }
 
-    private void loadIndexDirectory(@Nonnull OWLOntology targetOntology, boolean forceReset) {
+    /*
+     * Sets up the index directory of the target ontology and returns true if the directory
+     * was opened, or false if an open index was kept or reused from the index pool.
+     */
+    private boolean loadIndexDirectory(@Nonnull OWLOntology targetOntology, boolean forceReset) {
+        String targetKey = getIndexKey(targetOntology);
+        IndexDirectoryType directoryType = LuceneIndexPreferences.getDirectoryType();
         try {
             if (forceReset) {
                 removeIndexDirectory();
+                indexPool.remove(targetKey);
                 LuceneSearchPreferences.removeIndexLocation(targetOntology);
             }
-            if (shouldStoreInDisk(targetOntology)) {
+            else if (indexDelegator != null && targetKey.equals(indexKey)) {
+                return false; // the index is open already
+            }
+            Optional<IndexDelegator> pooledDelegator = indexPool.take(targetKey);
+            if (pooledDelegator.isPresent()) {
+                logger.info("Reusing the open index from the index pool ({})", indexPool.getStatistics());
+                indexDirectory = pooledDelegator.get().getDirectory();
+                setIndexDelegator(pooledDelegator.get(), targetKey);
+                return false;
+            }
+            else if (directoryType != IndexDirectoryType.HEAP && shouldStoreInDisk(targetOntology)) {
                 String indexLocation = LuceneSearchPreferences.findIndexLocation(targetOntology);
-                Directory directory = FSDirectory.open(Paths.get(indexLocation));
-                setIndexDirectory(directory);
+                Directory directory = openDirectory(Paths.get(indexLocation), directoryType);
+                logger.info("Opened the index directory as {}", directory.getClass().getSimpleName());
+                setIndexDirectory(directory, targetKey);
             }
             else {
                 logger.info("Storing index into RAM memory");
                 Directory directory = new RAMDirectory();
-                setIndexDirectory(directory);
+                setIndexDirectory(directory, targetKey);
             }
+            return true;
         }
         catch (IOException e) {
             throw new RuntimeException("Failed to setup index directory", e);
         }
     }
 
+    /*
+     * Opens the index files with the directory implementation of the preferences. Lucene's
+     * own choice prefers memory-mapped files on 64-bit platforms, which can fail on platforms
+     * with a limited virtual address space, where the NIO implementation still works.
+     */
+    private static Directory openDirectory(Path indexLocation, IndexDirectoryType directoryType) throws IOException {
+        switch (directoryType) {
+            case MMAP:
+                return new MMapDirectory(indexLocation);
+            case NIO:
+                return new NIOFSDirectory(indexLocation);
+            default:
+                return FSDirectory.open(indexLocation);
+        }
+    }
+
     private boolean shouldStoreInDisk(OWLOntology targetOntology) {
         if (LuceneSearchPreferences.useInMemoryIndexStoring()) {
             IRI documentIri = editorKit.getOWLModelManager().getOWLOntologyManager().getOntologyDocumentIRI(targetOntology);
@@ -302,39 +728,80 @@ public class LuceneSearchManager extends LuceneSearcher {
     }
 
     private void removeIndexDirectory() throws IOException {
-        setIndexDelegator(null);
+        setIndexDelegator(null, null);
     }
 
-    private void setIndexDirectory(Directory indexDirectory) throws IOException {
+    private void setIndexDirectory(Directory indexDirectory, String indexKey) throws IOException {
         this.indexDirectory = indexDirectory;
-        fireIndexDirectoryChange();
+        fireIndexDirectoryChange(indexKey);
     }
 
-    private void fireIndexDirectoryChange() throws IOException {
-        setupIndexDelegator();
+    private void fireIndexDirectoryChange(String indexKey) throws IOException {
+        setupIndexDelegator(indexKey);
     }
 
-    private void setupIndexDelegator() throws IOException {
+    private void setupIndexDelegator(String indexKey) throws IOException {
         IndexDelegator newDelegator = null;
         if (getIndexDirectory() != null) {
-            newDelegator = IndexDelegator.getInstance(getIndexDirectory(), indexer.getIndexWriterConfig());
+            newDelegator = IndexDelegator.getInstance(getIndexDirectory(), indexer::getIndexWriterConfig);
         }
-        setIndexDelegator(newDelegator);
+        setIndexDelegator(newDelegator, indexKey);
     }
 
-    private void setIndexDelegator(IndexDelegator indexDelegator) throws IOException {
+    /*
+     * Replaces the current index. The replaced index goes to the index pool when another
+     * index is opened, or it is disposed when the index is removed.
+     */
+    private void setIndexDelegator(IndexDelegator indexDelegator, String indexKey) throws IOException {
         if (this.indexDelegator != null) {
-            this.indexDelegator.dispose();
+            if (indexDelegator != null && this.indexKey != null) {
+                indexPool.release(this.indexKey, this.indexDelegator);
+            }
+            else {
+                this.indexDelegator.dispose();
+            }
         }
         this.indexDelegator = indexDelegator;
+        this.indexKey = indexKey;
+        resultCache.invalidate();
+        searchRefinement.clear();
+        suggester.clear();
     }
 
-    private List<SearchQuery> prepareQuery(String searchString) {
-        SearchInput searchInput = searchStringParser.parse(searchString);
-        LuceneSearchQueryBuilder builder = new LuceneSearchQueryBuilder(this);
+    private List<SearchQuery> prepareQuery(SearchInput searchInput, Set<SearchCategory> categories,
+            Set<EntityType<?>> entityTypes) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        LuceneSearchQueryBuilder builder = new LuceneSearchQueryBuilder(queryBuilders);
         builder.setCategories(categories);
         searchInput.accept(builder);
-        return builder.build();
+        List<SearchQuery> searchQueries = builder.build();
+        if (!entityTypes.isEmpty()) {
+            Query entityTypeFilter = SearchFilters.entityTypes(entityTypes);
+            List<SearchQuery> filteredQueries = new ArrayList<>();
+            for (SearchQuery searchQuery : searchQueries) {
+                filteredQueries.add(searchQuery.filter(entityTypeFilter));
+            }
+            searchQueries = filteredQueries;
+        }
+        logger.debug("... compiled {} search query(ies) in {} us, query compiler: {}", searchQueries.size(),
+                stopwatch.elapsed(TimeUnit.MICROSECONDS), getQueryCompiler().getStatistics());
+        return searchQueries;
+    }
+
+    private static String getIndexKey(OWLOntology ontology) {
+        return ontology.getOntologyID().toString();
+    }
+
+    private static String getRestrictionKey(Set<EntityType<?>> entityTypes) {
+        if (entityTypes.isEmpty()) {
+            return "";
+        }
+        List<String> typeNames = new ArrayList<>();
+        for (EntityType<?> entityType : entityTypes) {
+            typeNames.add(entityType.getName());
+        }
+        Collections.sort(typeNames);
+        return "|" + String.join(",", typeNames);
     }
 
     private void buildingIndex() {
@@ -342,6 +809,7 @@ public class LuceneSearchManager extends LuceneSearcher {
         try {
             indexer.doIndex(indexDelegator, new SearchContext(editorKit), progress -> fireIndexingProgressed(progress));
             saveIndex(currentActiveOntology);
+            warmingIndex();
         }
         catch (IOException e) {
             logger.error("... build index failed", e);
@@ -353,21 +821,75 @@ public class LuceneSearchManager extends LuceneSearcher {
 
     private class SearchCallable implements Runnable {
         private long searchId;
+        private SearchInput searchInput;
+        private Set<SearchCategory> searchCategories;
+        private String restrictionKey;
         private List<SearchQuery> searchQueries;
         private SearchResultHandler searchResultHandler;
+        private QueryProfile profile; // null if the search is not profiled
 
-        private SearchCallable(long searchId, List<SearchQuery> searchQueries, SearchResultHandler searchResultHandler) {
+        private SearchCallable(long searchId, SearchInput searchInput, Set<SearchCategory> searchCategories,
+                String restrictionKey, List<SearchQuery> searchQueries, SearchResultHandler searchResultHandler,
+                QueryProfile profile) {
             this.searchId = searchId;
+            this.searchInput = searchInput;
+            this.searchCategories = searchCategories;
+            this.restrictionKey = restrictionKey;
             this.searchQueries = searchQueries;
             this.searchResultHandler = searchResultHandler;
+            this.profile = profile;
         }
 
         @Override
         public void run() {
+            if (!isLatestSearch()) {
+                return; // superseded before it started
+            }
             logger.debug("Starting search {}", searchId);
             Stopwatch stopwatch = Stopwatch.createStarted();
+            if (indexDelegator != null && !indexDelegator.indexExists() && scheduler.isBuildPending()) {
+                logger.debug("... waiting for the index build to finish");
+                scheduler.awaitBuild();
+            }
+            IndexSearcher indexSearcher;
+            try {
+                indexSearcher = acquireIndexSearcher(); // the search and its results use the same reader
+            }
+            catch (IOException e) {
+                logger.error("Unable to open the index for search {}", searchId, e);
+                showResults(Collections.emptyList(), searchResultHandler);
+                return;
+            }
+            try {
+                runSearch(indexSearcher, stopwatch);
+            }
+            finally {
+                releaseIndexSearcher(indexSearcher);
+            }
+        }
+
+        private void runSearch(IndexSearcher indexSearcher, Stopwatch stopwatch) {
+            Optional<SearchResultCache.Key> cacheKey = createCacheKey(indexSearcher);
+            if (cacheKey.isPresent() && profile == null) {
+                Optional<Collection<SearchResult>> cachedResults = resultCache.get(cacheKey.get());
+                if (cachedResults.isPresent()) {
+                    debouncer.recordLatency(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+                    logger.debug("... finished search {} from cache in {} ms ({} results)", searchId,
+                            stopwatch.elapsed(TimeUnit.MILLISECONDS), cachedResults.get().size());
+                    showResults(cachedResults.get(), searchResultHandler);
+                    LazySearchResultList.releaseResults(cachedResults.get());
+                    return;
+                }
+            }
             fireSearchStarted();
-            Set<SearchResult> finalResults = new HashSet<>();
+            Optional<List<HitSetFilter>> refinementFilters = Optional.empty();
+            if (cacheKey.isPresent()) {
+                refinementFilters = searchRefinement.getFilters(cacheKey.get());
+            }
+            Map<SearchCategory, BitSet> finalHits = new EnumMap<>(SearchCategory.class);
+            List<BitSet> termHits = new ArrayList<>();
+            SearchBudget budget = new SearchBudget(() -> !isLatestSearch(), LuceneIndexPreferences.getQueryTimeBudget());
+            int termIndex = 0;
             for (SearchQuery query : searchQueries) {
                 if (!isLatestSearch()) {
                     // New search started
@@ -375,22 +897,94 @@ public class LuceneSearchManager extends LuceneSearcher {
                     return;
                 }
                 try {
-                    ResultDocumentHandler handler = new ResultDocumentHandler(editorKit);
-                    logger.debug("... executing query " + query);
-                    query.evaluate(handler, progress -> fireSearchingProgressed(progress));
-                    SearchUtils.intersect(finalResults, handler.getSearchResults());
+                    ResultDocumentHandler handler = new ResultDocumentHandler();
+                    SearchQuery evaluatedQuery = refineQuery(query, termIndex++, refinementFilters);
+                    logger.debug("... executing query " + evaluatedQuery);
+                    evaluatedQuery.evaluate(indexSearcher, handler, progress -> fireSearchingProgressed(progress), budget, profile);
+                    if (budget.isSuperseded()) {
+                        logger.debug("... terminating search {} while executing query", searchId);
+                        return;
+                    }
+                    SearchUtils.intersect(finalHits, handler.getCategoryHits());
+                    termHits.add(handler.getHits());
                 }
                 catch (QueryEvaluationException e) {
                     logger.error("Error while executing the query: {}", e);
                 }
             }
+            Collection<SearchResult> finalResults;
+            EntityResolver entityResolver = new EntityResolver(editorKit, renderingCache);
+            try {
+                List<Query> luceneQueries = new ArrayList<>();
+                for (SearchQuery query : searchQueries) {
+                    query.collectQueries(luceneQueries);
+                }
+                MatchOffsetExtractor offsetExtractor = new MatchOffsetExtractor(luceneQueries);
+                long resultStartTime = System.nanoTime();
+                LazySearchResultList resultList = new SearchResultFactory(indexSearcher, entityResolver, offsetExtractor)
+                        .createSearchResults(finalHits);
+                if (profile != null) {
+                    profile.setResults(resultList.size(), resultList.getFacets(), System.nanoTime() - resultStartTime);
+                }
+                resultList.setPrefetcher(scheduler::submitPrefetch);
+                resultList.prefetch(0); // the first page gets shown right away
+                finalResults = resultList;
+            }
+            catch (IOException e) {
+                logger.error("Failed to create the search results", e);
+                finalResults = Collections.emptyList();
+            }
             fireSearchFinished();
+            if (budget.isExpired()) {
+                logger.info("Search exceeded the time budget of {} ms per query, showing partial results",
+                        LuceneIndexPreferences.getQueryTimeBudget());
+            }
+            else if (cacheKey.isPresent()) { // partial results are neither cached nor used for refinement
+                resultCache.put(cacheKey.get(), finalResults);
+                searchRefinement.update(cacheKey.get(), termHits);
+            }
             stopwatch.stop();
+            debouncer.recordLatency(stopwatch.elapsed(TimeUnit.MILLISECONDS));
             logger.debug("... finished search {} in {} ms ({} results)", searchId, stopwatch.elapsed(TimeUnit.MILLISECONDS), finalResults.size());
+            logger.debug("... resolved {} distinct entities, rendering cache: {}", entityResolver.size(), renderingCache.getStatistics());
+            logger.debug("... search result cache: {}", resultCache.getStatistics());
+            logger.debug("... {}", scheduler.getSearchLane().getStatistics());
+            logger.debug("... search debouncer: {}", debouncer.getStatistics());
+            if (profile != null) {
+                logger.info(profile.getReport());
+            }
             showResults(finalResults, searchResultHandler);
+            LazySearchResultList.releaseResults(finalResults); // now held by the cache and the shown results
         }
 
-        private void showResults(final Set<SearchResult> results, final SearchResultHandler searchResultHandler) {
+        /*
+         * Restricts the query of the search term at the given index to the hits of the previous
+         * search, if the current search narrows the previous one.
+         */
+        private SearchQuery refineQuery(SearchQuery query, int termIndex, Optional<List<HitSetFilter>> refinementFilters) {
+            if (refinementFilters.isPresent() && termIndex < refinementFilters.get().size()) {
+                HitSetFilter filter = refinementFilters.get().get(termIndex);
+                logger.debug("... narrowing query to {} previous hits", filter.size());
+                return query.filter(filter);
+            }
+            return query;
+        }
+
+        private Optional<SearchResultCache.Key> createCacheKey(IndexSearcher indexSearcher) {
+            IndexReader reader = indexSearcher.getIndexReader();
+            if (!(reader instanceof DirectoryReader)) {
+                return Optional.empty();
+            }
+            long readerVersion = ((DirectoryReader) reader).getVersion();
+            resultCache.setReaderVersion(readerVersion); // drops stale entries after the reader reopens
+            return Optional.of(SearchResultCache.createKey(searchInput, searchCategories, restrictionKey, readerVersion));
+        }
+
+        private void showResults(final Collection<SearchResult> results, final SearchResultHandler searchResultHandler) {
+            if (profile == null) { // the profiled results are not shown
+                lastSearchFacets = SearchFacets.of(results);
+                setShownResults(results);
+            }
             if (SwingUtilities.isEventDispatchThread()) {
                 searchResultHandler.searchFinished(results);
             }
@@ -399,8 +993,11 @@ public class LuceneSearchManager extends LuceneSearcher {
             }
         }
 
+        /*
+         * A profiled search is never superseded, such that its profile always gets shown
+         */
         private boolean isLatestSearch() {
-            return searchId == lastSearchId.get();
+            return profile != null || searchId == lastSearchId.get();
         }
     }
 
@@ -409,6 +1006,7 @@ public class LuceneSearchManager extends LuceneSearcher {
      */
 
     private void fireIndexingStarted() {
+        indexingProgressThrottle.reset();
         SwingUtilities.invokeLater(() -> {
             for (ProgressMonitor pm : progressMonitors) {
                 pm.setSize(100);
@@ -420,20 +1018,23 @@ public class LuceneSearchManager extends LuceneSearcher {
     }
 
     private void fireIndexingProgressed(final long progress) {
-        SwingUtilities.invokeLater(() -> {
-            for (ProgressMonitor pm : progressMonitors) {
-                pm.setProgress(progress);
-                switch ((int)progress % 4) {
-                    case 0: pm.setMessage("indexing"); break;
-                    case 1: pm.setMessage("indexing."); break;
-                    case 2: pm.setMessage("indexing.."); break;
-                    case 3: pm.setMessage("indexing..."); break;
-                }
+        indexingProgressThrottle.update(progress);
+    }
+
+    private void showIndexingProgress(final long progress) {
+        for (ProgressMonitor pm : progressMonitors) {
+            pm.setProgress(progress);
+            switch ((int)progress % 4) {
+                case 0: pm.setMessage("indexing"); break;
+                case 1: pm.setMessage("indexing."); break;
+                case 2: pm.setMessage("indexing.."); break;
+                case 3: pm.setMessage("indexing..."); break;
             }
-        });
+        }
     }
 
     private void fireIndexingFinished() {
+        indexingProgressThrottle.flush();
         SwingUtilities.invokeLater(() -> {
             for (ProgressMonitor pm : progressMonitors) {
                 pm.setFinished();
@@ -442,6 +1043,7 @@ public class LuceneSearchManager extends LuceneSearcher {
     }
 
     private void fireSearchStarted() {
+        searchingProgressThrottle.reset();
         SwingUtilities.invokeLater(() -> {
             for (ProgressMonitor pm : progressMonitors) {
                 pm.setSize(100);
@@ -451,20 +1053,23 @@ public class LuceneSearchManager extends LuceneSearcher {
     }
 
     private void fireSearchingProgressed(final long progress) {
-        SwingUtilities.invokeLater(() -> {
-            for (ProgressMonitor pm : progressMonitors) {
-                pm.setProgress(progress);
-                switch ((int)progress % 4) {
-                    case 0: pm.setMessage("searching"); break;
-                    case 1: pm.setMessage("searching."); break;
-                    case 2: pm.setMessage("searching.."); break;
-                    case 3: pm.setMessage("searching..."); break;
-                }
+        searchingProgressThrottle.update(progress);
+    }
+
+    private void showSearchingProgress(final long progress) {
+        for (ProgressMonitor pm : progressMonitors) {
+            pm.setProgress(progress);
+            switch ((int)progress % 4) {
+                case 0: pm.setMessage("searching"); break;
+                case 1: pm.setMessage("searching."); break;
+                case 2: pm.setMessage("searching.."); break;
+                case 3: pm.setMessage("searching..."); break;
             }
-        });
+        }
     }
 
     private void fireSearchFinished() {
+        searchingProgressThrottle.flush();
         SwingUtilities.invokeLater(() -> {
             for (ProgressMonitor pm : progressMonitors) {
                 pm.setFinished();
@@ -9,22 +9,28 @@ import org.protege.editor.search.lucene.builder.DisplayNameQueryBuilder;
 import org.protege.editor.search.lucene.builder.EntityIriQueryBuilder;
 import org.protege.editor.search.lucene.builder.FilteredAnnotationQueryBuilder;
 import org.protege.editor.search.lucene.builder.LogicalAxiomQueryBuilder;
+import org.protege.editor.search.lucene.builder.PhoneticQueryBuilder;
 
 import org.semanticweb.owlapi.util.CollectionFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class LuceneSearchQueryBuilder implements SearchInputVisitor {
 
     private Collection<SearchCategory> categories;
-    private LuceneSearcher searcher;
+    private List<SearchQueryBuilder> builders;
 
     private List<SearchQuery> searchQueries = new ArrayList<>();
 
     public LuceneSearchQueryBuilder(LuceneSearcher searcher) {
-        this.searcher = searcher;
+        this(createBuilders(searcher));
+    }
+
+    public LuceneSearchQueryBuilder(List<SearchQueryBuilder> builders) {
+        this.builders = builders;
         categories = CollectionFactory.createSet(
                 SearchCategory.DISPLAY_NAME,
                 SearchCategory.IRI,
@@ -41,7 +47,7 @@ public class LuceneSearchQueryBuilder implements SearchInputVisitor {
     public void visit(SearchInput searchInput) {
         for (SearchTerm term : searchInput) {
             UnionQuery.Builder unionQueryBuilder = new UnionQuery.Builder();
-            for (SearchQueryBuilder queryBuilder : getBuilders()) {
+            for (SearchQueryBuilder queryBuilder : builders) {
                 if (queryBuilder.isBuilderFor(term, categories)) {
                     unionQueryBuilder.add(queryBuilder.buildSearchQueryFor(term));
                 }
@@ -54,13 +60,18 @@ public class LuceneSearchQueryBuilder implements SearchInputVisitor {
         return searchQueries;
     }
 
-    private List<SearchQueryBuilder> getBuilders() {
+    /**
+     * Creates the query builders for each search category. The builders are stateless,
+     * hence they can be created once and reused for every search.
+     */
+    public static List<SearchQueryBuilder> createBuilders(LuceneSearcher searcher) {
         List<SearchQueryBuilder> builders = new ArrayList<>();
         builders.add(new EntityIriQueryBuilder(searcher));
         builders.add(new DisplayNameQueryBuilder(searcher));
+        builders.add(new PhoneticQueryBuilder(searcher));
         builders.add(new AnnotationValueQueryBuilder(searcher));
         builders.add(new FilteredAnnotationQueryBuilder(searcher));
         builders.add(new LogicalAxiomQueryBuilder(searcher));
-        return builders;
+        return Collections.unmodifiableList(builders);
     }
 }
@@ -4,11 +4,18 @@ import org.protege.editor.owl.model.search.SearchManager;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.ExitableDirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Author: Josef Hardi <josef.hardi@stanford.edu><br>
@@ -18,18 +25,93 @@ import java.io.IOException;
  */
 public abstract class LuceneSearcher extends SearchManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(LuceneSearcher.class);
+
+    private QueryCompiler queryCompiler;
+
     protected abstract AbstractLuceneIndexer getIndexer();
 
     protected abstract IndexSearcher getIndexSearcher() throws IOException;
 
+    /**
+     * Acquires the latest index searcher for a search. The index reader of the searcher stays
+     * open until the search calls {@link #releaseIndexSearcher(IndexSearcher)}, such that the
+     * queries of the search and its results see the same documents, even if the index reader
+     * is reopened in the meantime.
+     */
+    protected abstract IndexSearcher acquireIndexSearcher() throws IOException;
+
+    /**
+     * Releases an index searcher acquired by {@link #acquireIndexSearcher()}.
+     */
+    protected void releaseIndexSearcher(IndexSearcher indexSearcher) {
+        try {
+            indexSearcher.getIndexReader().decRef();
+        }
+        catch (IOException e) {
+            logger.warn("Unable to release the index reader", e);
+        }
+    }
+
+    /**
+     * Checks if the loaded index has the given field. Optional fields are only used in the
+     * queries when the index has them.
+     */
+    public abstract boolean hasIndexField(String field);
+
+    /**
+     * Gets the namespace of a prefix name, e.g., to expand the CURIEs in a search string.
+     *
+     * @param prefixName
+     *          The prefix name without the colon
+     * @return The namespace, or an empty optional if the prefix name is unknown.
+     */
+    public Optional<String> getPrefixNamespace(String prefixName) {
+        return Optional.empty();
+    }
+
     public Analyzer getTextAnalyzer() {
         return getIndexer().getTextAnalyzer();
     }
 
+    public Analyzer getQueryAnalyzer() {
+        return getIndexer().getQueryAnalyzer();
+    }
+
+    /**
+     * Gets the query compiler that turns search strings into queries using the query analyzer.
+     */
+    public synchronized QueryCompiler getQueryCompiler() {
+        if (queryCompiler == null) {
+            queryCompiler = new QueryCompiler(getQueryAnalyzer(), this::hasIndexField, this::getPrefixNamespace);
+        }
+        return queryCompiler;
+    }
+
     public TopDocs search(Query query) throws IOException {
         return getIndexSearcher().search(query, Integer.MAX_VALUE);
     }
 
+    /**
+     * Runs the query on the given index searcher and passes the matching documents to the
+     * collector. The index reader checks the search budget while it enumerates the index
+     * terms, hence even the rewrite of an expensive wildcard or regular expression query stops
+     * once the budget is exhausted. The wrapping searcher shares the query cache and the
+     * caching policy of the index searcher, hence the searches use the cached filter bitsets.
+     */
+    public void search(IndexSearcher indexSearcher, Query query, Collector collector, SearchBudget budget)
+            throws IOException {
+        IndexSearcher searcher = indexSearcher;
+        IndexReader reader = indexSearcher.getIndexReader();
+        if (budget.isTimeoutEnabled() && reader instanceof DirectoryReader) {
+            // The wrapped segments keep the core cache keys of the index reader segments
+            searcher = new IndexSearcher(new ExitableDirectoryReader((DirectoryReader) reader, budget));
+            searcher.setQueryCache(indexSearcher.getQueryCache());
+            searcher.setQueryCachingPolicy(indexSearcher.getQueryCachingPolicy());
+        }
+        searcher.search(query, collector);
+    }
+
     public Document find(int docId) throws IOException {
         return getIndexSearcher().doc(docId);
     }
@@ -48,7 +48,7 @@ public class LuceneStringParser implements SearchStringParser {
                 prefs.isIgnoreWhiteSpace(), // ignore whitespace
                 prefs.isWholeWords(), // search whole words
                 prefs.isUseRegularExpressions(), // search by regex
-                false); // search by phonetic
+                LuceneIndexPreferences.usePhoneticSearch()); // search by phonetic
     }
 
     private static String toLuceneSyntax(String searchString) {
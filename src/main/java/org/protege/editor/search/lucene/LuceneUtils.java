@@ -20,6 +20,11 @@ import org.apache.lucene.search.WildcardQuery;
  */
 public class LuceneUtils {
 
+    /**
+     * @deprecated Creates a new query parser and analyzer on every call. Use
+     * {@link QueryCompiler#compile(String, String)} instead.
+     */
+    @Deprecated
     public static Query createQuery(String searchField, String searchString) {
         try {
             QueryParser parser = new QueryParser(searchField, new StandardAnalyzer());
@@ -30,6 +35,11 @@ public class LuceneUtils {
         }
     }
 
+    /**
+     * @deprecated Creates a new query parser on every call. Use
+     * {@link QueryCompiler#compile(String, String)} instead.
+     */
+    @Deprecated
     public static Query createQuery(String searchField, String searchString, Analyzer textAnalyzer) {
         try {
             QueryParser parser = new QueryParser(searchField, textAnalyzer);
@@ -52,14 +62,32 @@ public class LuceneUtils {
         return new PrefixQuery(new Term(searchField, keyword));
     }
 
+    /**
+     * Creates a suffix query with a leading wildcard, which visits every term of the field.
+     * Prefer {@link #createReversedSuffixQuery(String, String)} when the field has a reversed
+     * word companion.
+     */
     public static WildcardQuery createSuffixQuery(String searchField, String keyword) {
         return new WildcardQuery(new Term(searchField, "*" + keyword));
     }
 
+    /**
+     * Creates an infix query with a leading wildcard, which visits every term of the field.
+     * {@link QueryCompiler} searches the trigram companion of the field instead, when the
+     * index has one.
+     */
     public static WildcardQuery createLikeQuery(String searchField, String keyword) {
         return new WildcardQuery(new Term(searchField, "*" + keyword + "*"));
     }
 
+    /**
+     * Creates a suffix query as a prefix query over a field that indexes the words in
+     * reverse (see {@link org.protege.editor.search.lucene.analyzer.ReversedTokenAnalyzer}).
+     */
+    public static PrefixQuery createReversedSuffixQuery(String reversedField, String keyword) {
+        return new PrefixQuery(new Term(reversedField, new StringBuilder(keyword).reverse().toString()));
+    }
+
     public static RegexpQuery createRegexQuery(String searchField, String regexPattern) {
         return new RegexpQuery(new Term(searchField, regexPattern));
     }
@@ -0,0 +1,243 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.AutomatonQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the character offsets of the query matches in the indexed text fields. The offsets
+ * are read from the postings of the fields that were indexed with offsets, hence the stored
+ * text never gets analyzed again. The extractor collects the positive terms and automata
+ * (prefix, wildcard and regular expression queries) of the search queries and looks up a
+ * batch of documents at once, such that each matching index term is visited only once per
+ * batch.
+ */
+public class MatchOffsetExtractor {
+
+    public static final MatchOffsetExtractor EMPTY = new MatchOffsetExtractor(Collections.emptyList());
+
+    /*
+     * The maximum number of index terms an automaton query is expanded to when looking up
+     * the offsets of its matches.
+     */
+    private static final int MAX_EXPANSIONS = 1024;
+
+    private final Map<String, List<Term>> fieldTerms = new HashMap<>();
+
+    private final Map<String, List<CompiledAutomaton>> fieldAutomata = new HashMap<>();
+
+    public MatchOffsetExtractor(Collection<Query> queries) {
+        for (Query query : queries) {
+            extract(query);
+        }
+    }
+
+    /**
+     * Checks if the extractor has any terms or automata for the given field.
+     */
+    public boolean hasQueriesFor(String field) {
+        return fieldTerms.containsKey(field) || fieldAutomata.containsKey(field);
+    }
+
+    /**
+     * Gets the match offsets of the given documents in the given field.
+     *
+     * @param searcher
+     *          The index searcher that produced the document ids
+     * @param field
+     *          The field name
+     * @param docIds
+     *          The document ids, in ascending order
+     * @return A map from the document id to the sorted, non-overlapping match offsets. Each
+     * offset is an array of the start and the end offset. Documents without matches are not
+     * in the map.
+     */
+    public Map<Integer, List<int[]>> getOffsets(IndexSearcher searcher, String field, int[] docIds) throws IOException {
+        return getOffsets(searcher, Collections.singletonList(field), docIds);
+    }
+
+    /**
+     * Gets the match offsets of the given documents in any of the given fields. The fields
+     * must index the same text, e.g., a text field and its companion fields, such that the
+     * offsets can be merged.
+     */
+    public Map<Integer, List<int[]>> getOffsets(IndexSearcher searcher, Collection<String> fields, int[] docIds) throws IOException {
+        Map<Integer, List<int[]>> offsets = new HashMap<>();
+        for (String field : fields) {
+            if (docIds.length > 0 && hasQueriesFor(field)) {
+                collectOffsets(searcher, field, docIds, offsets);
+            }
+        }
+        for (List<int[]> docOffsets : offsets.values()) {
+            normalize(docOffsets);
+        }
+        return offsets;
+    }
+
+    private void collectOffsets(IndexSearcher searcher, String field, int[] docIds, Map<Integer, List<int[]>> offsets)
+            throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        int start = 0;
+        while (start < docIds.length) {
+            LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docIds[start], leaves));
+            int leafEnd = leaf.docBase + leaf.reader().maxDoc();
+            int end = start;
+            while (end < docIds.length && docIds[end] < leafEnd) {
+                end++;
+            }
+            Terms terms = leaf.reader().terms(field);
+            if (terms != null && terms.hasOffsets()) {
+                collectOffsets(terms, field, leaf.docBase, Arrays.copyOfRange(docIds, start, end), offsets);
+            }
+            start = end;
+        }
+    }
+
+    private void collectOffsets(Terms terms, String field, int docBase, int[] docIds, Map<Integer, List<int[]>> offsets)
+            throws IOException {
+        PostingsEnum postings = null;
+        List<Term> exactTerms = fieldTerms.get(field);
+        if (exactTerms != null) {
+            TermsEnum termsEnum = terms.iterator();
+            for (Term term : exactTerms) {
+                if (termsEnum.seekExact(term.bytes())) {
+                    postings = termsEnum.postings(postings, PostingsEnum.OFFSETS);
+                    collectOffsets(postings, docBase, docIds, offsets);
+                }
+            }
+        }
+        List<CompiledAutomaton> automata = fieldAutomata.get(field);
+        if (automata != null) {
+            for (CompiledAutomaton automaton : automata) {
+                TermsEnum termsEnum = automaton.getTermsEnum(terms);
+                int expansions = 0;
+                while (termsEnum.next() != null && expansions++ < MAX_EXPANSIONS) {
+                    postings = termsEnum.postings(postings, PostingsEnum.OFFSETS);
+                    collectOffsets(postings, docBase, docIds, offsets);
+                }
+            }
+        }
+    }
+
+    private static void collectOffsets(PostingsEnum postings, int docBase, int[] docIds, Map<Integer, List<int[]>> offsets)
+            throws IOException {
+        for (int docId : docIds) {
+            int target = docId - docBase;
+            int current = postings.docID();
+            if (current < target) {
+                current = postings.advance(target);
+            }
+            if (current == DocIdSetIterator.NO_MORE_DOCS) {
+                break;
+            }
+            if (current != target) {
+                continue;
+            }
+            int freq = postings.freq();
+            for (int i = 0; i < freq; i++) {
+                postings.nextPosition();
+                int startOffset = postings.startOffset();
+                int endOffset = postings.endOffset();
+                if (startOffset >= 0 && endOffset > startOffset) {
+                    List<int[]> docOffsets = offsets.get(docId);
+                    if (docOffsets == null) {
+                        docOffsets = new ArrayList<>();
+                        offsets.put(docId, docOffsets);
+                    }
+                    docOffsets.add(new int[] { startOffset, endOffset });
+                }
+            }
+        }
+    }
+
+    /*
+     * Sorts the offsets and merges the overlapping ones.
+     */
+    private static void normalize(List<int[]> offsets) {
+        offsets.sort((o1, o2) -> (o1[0] != o2[0]) ? Integer.compare(o1[0], o2[0]) : Integer.compare(o1[1], o2[1]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] offset : offsets) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && offset[0] <= last[1]) {
+                last[1] = Math.max(last[1], offset[1]);
+            }
+            else {
+                merged.add(offset);
+            }
+        }
+        offsets.clear();
+        offsets.addAll(merged);
+    }
+
+    private void extract(Query query) {
+        if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (!clause.isProhibited() && clause.getOccur() != Occur.FILTER) {
+                    extract(clause.getQuery());
+                }
+            }
+        }
+        else if (query instanceof TermQuery) {
+            addTerm(((TermQuery) query).getTerm());
+        }
+        else if (query instanceof PhraseQuery) {
+            for (Term term : ((PhraseQuery) query).getTerms()) {
+                addTerm(term);
+            }
+        }
+        else if (query instanceof AutomatonQuery) {
+            AutomatonQuery automatonQuery = (AutomatonQuery) query;
+            addAutomaton(automatonQuery.getField(), new CompiledAutomaton(automatonQuery.getAutomaton()));
+        }
+        else if (query instanceof ConstantScoreQuery) {
+            extract(((ConstantScoreQuery) query).getQuery());
+        }
+        else if (query instanceof DisjunctionMaxQuery) {
+            for (Query disjunct : ((DisjunctionMaxQuery) query).getDisjuncts()) {
+                extract(disjunct);
+            }
+        }
+    }
+
+    private void addTerm(Term term) {
+        List<Term> terms = fieldTerms.get(term.field());
+        if (terms == null) {
+            terms = new ArrayList<>();
+            fieldTerms.put(term.field(), terms);
+        }
+        terms.add(term);
+    }
+
+    private void addAutomaton(String field, CompiledAutomaton automaton) {
+        List<CompiledAutomaton> automata = fieldAutomata.get(field);
+        if (automata == null) {
+            automata = new ArrayList<>();
+            fieldAutomata.put(field, automata);
+        }
+        automata.add(automaton);
+    }
+}
@@ -0,0 +1,62 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchManager;
+import org.protege.editor.owl.ui.action.ProtegeOWLAction;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+/**
+ * A debug action that runs a search with profiling and shows where its time went, i.e.,
+ * which query clause was slow, how many index terms its prefixes or regular expressions
+ * expanded to, and how the time splits between Lucene and the result handling.
+ */
+public class ProfileSearchAction extends ProtegeOWLAction {
+
+    @Override
+    public void initialise() throws Exception {
+        // NO-OP
+    }
+
+    @Override
+    public void dispose() throws Exception {
+        // NO-OP
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        SearchManager searchManager = getOWLEditorKit().getSearchManager();
+        if (!(searchManager instanceof LuceneSearchManager)) {
+            JOptionPane.showMessageDialog(getWorkspace(), "The Lucene search is not the active search manager.",
+                    "Profile search", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String searchString = JOptionPane.showInputDialog(getWorkspace(), "Search string to profile:",
+                "Profile search", JOptionPane.PLAIN_MESSAGE);
+        if (searchString == null || searchString.trim().isEmpty()) {
+            return;
+        }
+        if (!((LuceneSearchManager) searchManager).performProfiledSearch(searchString, this::showProfile)) {
+            JOptionPane.showMessageDialog(getWorkspace(), "The search index is not loaded yet.",
+                    "Profile search", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private void showProfile(QueryProfile profile) {
+        JTextArea textArea = new JTextArea(profile.getReport());
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(800, 400));
+        JOptionPane.showMessageDialog(getWorkspace(), scrollPane, "Search profile", JOptionPane.INFORMATION_MESSAGE);
+    }
+}
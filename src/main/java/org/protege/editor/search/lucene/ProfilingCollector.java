@@ -0,0 +1,97 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.search.lucene.QueryProfile.ClauseProfile;
+import org.protege.editor.search.lucene.QueryProfile.SegmentProfile;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorer;
+
+import java.io.IOException;
+
+/**
+ * Measures a collector for the search profile. The index searcher visits the segments one
+ * after another, hence the time of a segment runs from the moment its leaf collector is
+ * requested until the next segment starts or {@link #finish()} is called. The time spent
+ * in the wrapped collector, i.e., in the document handler, is measured per hit.
+ */
+class ProfilingCollector implements Collector {
+
+    private final Collector collector;
+
+    private final ClauseProfile profile;
+
+    private LeafReaderContext currentLeaf;
+
+    private long leafStartTime = 0;
+
+    private int leafHitCount = 0;
+
+    private int hitCount = 0;
+
+    private long handlerTime = 0; // in nanoseconds
+
+    ProfilingCollector(Collector collector, ClauseProfile profile) {
+        this.collector = collector;
+        this.profile = profile;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        finishLeaf();
+        currentLeaf = context;
+        leafStartTime = System.nanoTime();
+        leafHitCount = 0;
+        final LeafCollector leafCollector = collector.getLeafCollector(context);
+        return new LeafCollector() {
+
+            @Override
+            public void setScorer(Scorer scorer) throws IOException {
+                leafCollector.setScorer(scorer);
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                long startTime = System.nanoTime();
+                try {
+                    leafCollector.collect(doc);
+                }
+                finally {
+                    handlerTime += System.nanoTime() - startTime;
+                    leafHitCount++;
+                    hitCount++;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean needsScores() {
+        return collector.needsScores();
+    }
+
+    /**
+     * Records the time of the last visited segment. Call it once the search returned or
+     * stopped.
+     */
+    void finish() {
+        finishLeaf();
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    long getHandlerTime() {
+        return handlerTime;
+    }
+
+    private void finishLeaf() {
+        if (currentLeaf != null) {
+            profile.addSegment(new SegmentProfile(currentLeaf.ord, currentLeaf.reader().maxDoc(),
+                    System.nanoTime() - leafStartTime, leafHitCount));
+            currentLeaf = null;
+        }
+    }
+}
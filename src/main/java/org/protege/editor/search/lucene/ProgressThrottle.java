@@ -0,0 +1,94 @@
+package org.protege.editor.search.lucene;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnull;
+import javax.swing.SwingUtilities;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Forwards progress values to the Swing event dispatch thread at a limited rate. The
+ * throttle samples the reported progress at most once per interval and keeps at most
+ * one update pending in the event queue. Values reported in between are dropped, and
+ * the pending update delivers the latest value at the time it runs.
+ */
+public class ProgressThrottle {
+
+    public static final long DEFAULT_INTERVAL = 50; // in milliseconds, i.e., 20 updates per second
+
+    private final LongConsumer progressConsumer;
+
+    private final long interval; // in nanoseconds
+
+    private final AtomicLong latestProgress = new AtomicLong(-1);
+
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
+    private volatile long lastDispatchTime;
+
+    private volatile long lastDeliveredProgress = -1;
+
+    /**
+     * Creates a progress throttle.
+     *
+     * @param progressConsumer
+     *          Receives the sampled progress values on the event dispatch thread
+     */
+    public ProgressThrottle(@Nonnull LongConsumer progressConsumer) {
+        this(progressConsumer, DEFAULT_INTERVAL);
+    }
+
+    public ProgressThrottle(@Nonnull LongConsumer progressConsumer, long interval) {
+        this.progressConsumer = checkNotNull(progressConsumer);
+        this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.lastDispatchTime = System.nanoTime() - this.interval;
+    }
+
+    /**
+     * Reports a progress value. The method can be called from any thread and as often
+     * as needed.
+     */
+    public void update(long progress) {
+        latestProgress.set(progress);
+        long now = System.nanoTime();
+        if (now - lastDispatchTime >= interval) {
+            dispatch(now);
+        }
+    }
+
+    /**
+     * Delivers the latest progress value regardless of the sampling interval, e.g., when
+     * the task has finished.
+     */
+    public void flush() {
+        dispatch(System.nanoTime());
+    }
+
+    /**
+     * Forgets the previously delivered progress when a new task starts.
+     */
+    public void reset() {
+        latestProgress.set(-1);
+        lastDeliveredProgress = -1;
+    }
+
+    private void dispatch(long now) {
+        if (updatePending.compareAndSet(false, true)) {
+            lastDispatchTime = now;
+            SwingUtilities.invokeLater(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        updatePending.set(false);
+        long progress = latestProgress.get();
+        if (progress >= 0 && progress != lastDeliveredProgress) {
+            lastDeliveredProgress = progress;
+            progressConsumer.accept(progress);
+        }
+    }
+}
@@ -0,0 +1,834 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.search.lucene.analyzer.EdgeNGramAnalyzer;
+import org.protege.editor.search.lucene.analyzer.PhoneticAnalyzer;
+import org.protege.editor.search.lucene.analyzer.TrigramAnalyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.automaton.RegExp;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Compiles the search strings produced by {@link LuceneStringParser} into Lucene queries,
+ * without going through the classic query parser. The compiler understands the subset of
+ * the query syntax the string parser emits: required (<code>+</code>), prohibited
+ * (<code>-</code>) and optional words, prefix and wildcard words, and quoted phrases.
+ * Words and phrases are analyzed with the shared text analyzer, whose token streams are
+ * reused across calls. A short word prefix becomes a single term lookup in the word
+ * prefix field when the index has one, instead of a prefix query that enumerates the
+ * term dictionary. Likewise, a suffix word (<code>*fix</code>) becomes a prefix query
+ * over the reversed words and an infix word (<code>*fix*</code>) becomes a phrase query
+ * over the character trigrams, when the index has those fields. Fragments shorter than
+ * a trigram fall back to a wildcard query.
+ * <p>
+ * Regular expressions are matched against the untokenized keyword copy of a field, if
+ * the index has one, such that a pattern can span several words. The compiled regular
+ * expression queries are cached, and a pattern that is too long or whose automaton is
+ * too large is rejected before it reaches the term dictionary. A phonetic search looks
+ * up the leading n-gram of the phonetic code of each word. A case-sensitive search is
+ * compiled against the case-preserving copy of a field, without lowercasing the prefix
+ * and wildcard words. A whitespace-insensitive search looks up the keyword copy of a field
+ * without whitespace.
+ * <p>
+ * A word with a leading wildcard that cannot be looked up in the reversed words or the
+ * trigrams visits every term of the field, hence it needs at least
+ * {@link #MIN_LEADING_WILDCARD_LITERALS} other characters, or it matches nothing.
+ * <p>
+ * The parsed form of a search string (the query template) does not depend on the index
+ * field, so it is cached and shared by all the fields that are searched for the same
+ * string. The cache key is the search string, which already encodes the search mode
+ * (e.g., quotes for whole words), and the letter case of the field. The compiled queries
+ * are cached as well, since a search string is often compiled again when the user edits
+ * and restores the input.
+ */
+public class QueryCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCompiler.class);
+
+    private static final int MAX_TEMPLATES = 256;
+
+    private static final int MAX_QUERIES = 1024;
+
+    private static final Pattern CLAUSE_PATTERN = Pattern.compile("([+-]?)(\"[^\"]*\"?|\\S+)");
+
+    private final Analyzer analyzer;
+
+    private final Analyzer phoneticAnalyzer = PhoneticAnalyzer.createQueryAnalyzer();
+
+    private final Predicate<String> indexFieldChecker;
+
+    private final Function<String, Optional<String>> prefixResolver;
+
+    private final Map<String, QueryTemplate> templateCache = new LruMap<>(MAX_TEMPLATES);
+
+    private final Map<String, Query> queryCache = new LruMap<>(MAX_QUERIES);
+
+    private final AtomicLong templateHits = new AtomicLong(0);
+    private final AtomicLong queryHits = new AtomicLong(0);
+    private final AtomicLong compileCount = new AtomicLong(0);
+    private final AtomicLong rejectedRegexCount = new AtomicLong(0);
+    private final AtomicLong rejectedWildcardCount = new AtomicLong(0);
+
+    /*
+     * The companion fields that index the leading n-grams of the words in a text field
+     */
+    private static final Map<String, String> PREFIX_FIELDS = new HashMap<>();
+    static {
+        PREFIX_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_PREFIX);
+        PREFIX_FIELDS.put(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_PREFIX);
+    }
+
+    /*
+     * The companion fields that index the words in reverse
+     */
+    private static final Map<String, String> REVERSED_FIELDS = new HashMap<>();
+    static {
+        REVERSED_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_REVERSED);
+        REVERSED_FIELDS.put(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_REVERSED);
+    }
+
+    /*
+     * The companion fields that index the character trigrams of a text field
+     */
+    private static final Map<String, String> TRIGRAM_FIELDS = new HashMap<>();
+    static {
+        TRIGRAM_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_TRIGRAM);
+        TRIGRAM_FIELDS.put(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_TRIGRAM);
+    }
+
+    /*
+     * The untokenized keyword copies of a field, for the whole-string regular expressions
+     */
+    private static final Map<String, String> KEYWORD_FIELDS = new HashMap<>();
+    static {
+        KEYWORD_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_KEYWORD);
+        KEYWORD_FIELDS.put(IndexField.ENTITY_IRI, IndexField.ENTITY_LOCAL_NAME_KEYWORD);
+    }
+
+    /*
+     * The companion fields that keep the letter case of the words in a text field
+     */
+    private static final Map<String, String> CASED_FIELDS = new HashMap<>();
+    static {
+        CASED_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_CASED);
+        CASED_FIELDS.put(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_CASED);
+    }
+
+    /*
+     * The lowercased keyword copies of a field without whitespace
+     */
+    private static final Map<String, String> COMPACT_FIELDS = new HashMap<>();
+    static {
+        COMPACT_FIELDS.put(IndexField.DISPLAY_NAME, IndexField.DISPLAY_NAME_COMPACT);
+        COMPACT_FIELDS.put(IndexField.ANNOTATION_TEXT, IndexField.ANNOTATION_TEXT_COMPACT);
+    }
+
+    /*
+     * The untokenized copies of an IRI field, for the full IRI lookups
+     */
+    private static final Map<String, String> IRI_KEY_FIELDS = new HashMap<>();
+    static {
+        IRI_KEY_FIELDS.put(IndexField.ENTITY_IRI, IndexField.ENTITY_IRI_KEY);
+        IRI_KEY_FIELDS.put(IndexField.ANNOTATION_IRI, IndexField.ANNOTATION_IRI_KEY);
+    }
+
+    private static final int MAX_REGEX_LENGTH = 256;
+
+    /**
+     * The minimum number of characters other than wildcards in a word with a leading
+     * wildcard that is searched by a scan of the term dictionary
+     */
+    public static final int MIN_LEADING_WILDCARD_LITERALS = 3;
+
+    /*
+     * Lower than the Lucene default, such that the automaton of a pathological pattern is
+     * rejected early rather than built at the cost of the search budget.
+     */
+    private static final int MAX_REGEX_DETERMINIZED_STATES = 2000;
+
+    private static final int MIN_PREFIX_GRAM_SIZE = EdgeNGramAnalyzer.DEFAULT_MIN_GRAM_SIZE;
+    private static final int MAX_PREFIX_GRAM_SIZE = EdgeNGramAnalyzer.DEFAULT_MAX_GRAM_SIZE;
+
+    public QueryCompiler(@Nonnull Analyzer analyzer) {
+        this(analyzer, field -> false);
+    }
+
+    /**
+     * Creates a query compiler.
+     *
+     * @param analyzer
+     *          The analyzer of the search strings, which matches the analyzer of the index
+     *          text fields
+     * @param indexFieldChecker
+     *          Checks if the index has an optional field, e.g., the word prefix fields
+     */
+    public QueryCompiler(@Nonnull Analyzer analyzer, @Nonnull Predicate<String> indexFieldChecker) {
+        this(analyzer, indexFieldChecker, prefixName -> Optional.empty());
+    }
+
+    /**
+     * Creates a query compiler.
+     *
+     * @param analyzer
+     *          The analyzer of the search strings, which matches the analyzer of the index
+     *          text fields
+     * @param indexFieldChecker
+     *          Checks if the index has an optional field, e.g., the word prefix fields
+     * @param prefixResolver
+     *          Gets the namespace of a prefix name (without the colon), to expand CURIEs
+     */
+    public QueryCompiler(@Nonnull Analyzer analyzer, @Nonnull Predicate<String> indexFieldChecker,
+            @Nonnull Function<String, Optional<String>> prefixResolver) {
+        this.analyzer = checkNotNull(analyzer);
+        this.indexFieldChecker = checkNotNull(indexFieldChecker);
+        this.prefixResolver = checkNotNull(prefixResolver);
+    }
+
+    /**
+     * Compiles the search string into a query on the given field, or on its case-preserving
+     * copy if the search is case-sensitive and the index has the copy.
+     */
+    public Query compile(@Nonnull String field, @Nonnull String searchString, boolean caseSensitive) {
+        if (caseSensitive) {
+            String casedField = getCompanionField(CASED_FIELDS, field);
+            if (casedField != null) {
+                return compile(casedField, searchString);
+            }
+        }
+        return compile(field, searchString);
+    }
+
+    /**
+     * Compiles the search string into a query on the given field.
+     *
+     * @param field
+     *          The index field to search
+     * @param searchString
+     *          The search string in the query syntax of {@link LuceneStringParser}
+     * @return A query, or an empty term query if the search string has no searchable words.
+     */
+    public Query compile(@Nonnull String field, @Nonnull String searchString) {
+        checkNotNull(field);
+        checkNotNull(searchString);
+        compileCount.incrementAndGet();
+        boolean lowercase = !CASED_FIELDS.containsValue(field);
+        String templateKey = (lowercase ? "" : "cased|") + searchString;
+        CompanionFields companions = getCompanionFields(field);
+        String queryKey = field + "|" + companions + "|" + templateKey;
+        synchronized (queryCache) {
+            Query query = queryCache.get(queryKey);
+            if (query != null) {
+                queryHits.incrementAndGet();
+                return query;
+            }
+        }
+        QueryTemplate template;
+        synchronized (templateCache) {
+            template = templateCache.get(templateKey);
+            if (template == null) {
+                template = QueryTemplate.parse(searchString, lowercase);
+                templateCache.put(templateKey, template);
+            }
+            else {
+                templateHits.incrementAndGet();
+            }
+        }
+        Query query = instantiate(field, companions, template);
+        synchronized (queryCache) {
+            queryCache.put(queryKey, query);
+        }
+        return query;
+    }
+
+    /**
+     * Compiles a whitespace-insensitive search into a lookup of the lowercased keyword copy
+     * of the given field without whitespace. The search string matches anywhere in the
+     * value, e.g., "heartdis" and "heart dis" both match "Heart disease". Since the words
+     * cannot be told apart once the whitespace is removed, a whole-words search matches the
+     * whole value instead, e.g., "heart disease" matches "HeartDisease" but not "Heart
+     * disease rate". The keyword copy is lowercased, hence the search ignores the letter
+     * case even if it is case-sensitive.
+     * <p>
+     * A whole-words search that does not ignore whitespace is not compiled by this method.
+     * It is a phrase query on the tokenized field (see {@link #compile(String, String,
+     * boolean)}), which also honours a case-sensitive search.
+     *
+     * @param field
+     *          The index field to search
+     * @param searchString
+     *          The plain search string, without the query syntax
+     * @param wholeWords
+     *          Whether the search string must match the whole value
+     * @return A term or wildcard query, or an empty optional if the index has no keyword
+     * copy of the field without whitespace.
+     */
+    public Optional<Query> compileIgnoringWhitespace(@Nonnull String field, @Nonnull String searchString,
+            boolean wholeWords) {
+        checkNotNull(field);
+        checkNotNull(searchString);
+        String compactKeyword = IndexDocumentBuilder.createCompactKeyword(IndexDocumentBuilder.createKeyword(searchString));
+        String compactField = getCompanionField(COMPACT_FIELDS, field);
+        if (compactKeyword.isEmpty() || compactField == null) {
+            return Optional.empty();
+        }
+        compileCount.incrementAndGet();
+        return Optional.of(wholeWords
+                ? LuceneUtils.createTermQuery(compactField, compactKeyword)
+                : LuceneUtils.createLikeQuery(compactField, escapeWildcards(compactKeyword)));
+    }
+
+    /**
+     * Compiles the search string into a term lookup if it is written as an IRI. A full IRI,
+     * optionally enclosed in angle brackets, matches the untokenized copy of the given
+     * field. A CURIE, e.g., "GO:0008150", is expanded to a full IRI if the prefix resolver
+     * knows its prefix name. Only a CURIE with an unknown prefix name matches the local
+     * names "0008150" and "GO_0008150" in any namespace, as indexed by the
+     * {@link org.protege.editor.search.lucene.analyzer.IriAnalyzer}.
+     *
+     * @param field
+     *          The IRI index field to search
+     * @param searchString
+     *          The plain search string, without the query syntax
+     * @return A term query, or an empty optional if the search string is not an IRI or a
+     * CURIE, or the index has no untokenized copy of the field.
+     */
+    public Optional<Query> compileIri(@Nonnull String field, @Nonnull String searchString) {
+        checkNotNull(field);
+        checkNotNull(searchString);
+        String iri = searchString.trim();
+        if (iri.startsWith("<") && iri.endsWith(">")) {
+            iri = iri.substring(1, iri.length() - 1).trim();
+        }
+        if (iri.isEmpty() || containsWhitespace(iri)) {
+            return Optional.empty();
+        }
+        if (isFullIri(iri)) {
+            String iriKeyField = getCompanionField(IRI_KEY_FIELDS, field);
+            if (iriKeyField == null) {
+                return Optional.empty();
+            }
+            compileCount.incrementAndGet();
+            return Optional.of(LuceneUtils.createTermQuery(iriKeyField, iri));
+        }
+        int colon = iri.indexOf(':');
+        if (colon <= 0 || colon == iri.length() - 1) {
+            return Optional.empty();
+        }
+        Optional<String> namespace = prefixResolver.apply(iri.substring(0, colon));
+        String iriKeyField = getCompanionField(IRI_KEY_FIELDS, field);
+        if (namespace.isPresent() && iriKeyField != null) {
+            compileCount.incrementAndGet();
+            return Optional.of(LuceneUtils.createTermQuery(iriKeyField, namespace.get() + iri.substring(colon + 1)));
+        }
+        if (!indexFieldChecker.test(field)) {
+            return Optional.empty();
+        }
+        compileCount.incrementAndGet();
+        String prefix = iri.substring(0, colon).toLowerCase();
+        String localName = iri.substring(colon + 1).toLowerCase();
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(LuceneUtils.createTermQuery(field, localName), Occur.SHOULD);
+        builder.add(LuceneUtils.createTermQuery(field, prefix + "_" + localName), Occur.SHOULD);
+        return Optional.of(builder.build());
+    }
+
+    /**
+     * Compiles the regular expression into a query on the given field. The expression
+     * matches the whole keyword copy of the field if the index has one, or else a single
+     * word of the field. The matching is case-insensitive since both copies are lowercased.
+     *
+     * @param field
+     *          The index field to search
+     * @param regex
+     *          The regular expression in the Lucene {@link RegExp} syntax
+     * @return A regular expression query, or an empty term query if the expression is
+     * invalid or too complex.
+     */
+    public Query compileRegex(@Nonnull String field, @Nonnull String regex) {
+        checkNotNull(field);
+        checkNotNull(regex);
+        compileCount.incrementAndGet();
+        String keywordField = getCompanionField(KEYWORD_FIELDS, field);
+        String targetField = (keywordField != null) ? keywordField : field;
+        String pattern = regex.toLowerCase();
+        String queryKey = targetField + "|regex|" + pattern;
+        synchronized (queryCache) {
+            Query query = queryCache.get(queryKey);
+            if (query != null) {
+                queryHits.incrementAndGet();
+                return query;
+            }
+        }
+        Query query = createRegexQuery(targetField, pattern);
+        synchronized (queryCache) {
+            queryCache.put(queryKey, query);
+        }
+        return query;
+    }
+
+    /**
+     * Compiles the search string into a query that matches the words that sound like the
+     * words of the search string. Every word of the search string must be matched.
+     *
+     * @param field
+     *          The phonetic index field, i.e., {@link IndexField#PHONETIC_NAME}
+     * @param searchString
+     *          The plain search string, without the query syntax
+     * @return A query, or an empty term query if the index has no phonetic field or the
+     * search string has no words to encode.
+     */
+    public Query compilePhonetic(@Nonnull String field, @Nonnull String searchString) {
+        checkNotNull(field);
+        checkNotNull(searchString);
+        compileCount.incrementAndGet();
+        if (!indexFieldChecker.test(field)) {
+            return LuceneUtils.createTermQuery(field, ""); // return an empty term query
+        }
+        String queryKey = field + "|phonetic|" + searchString;
+        synchronized (queryCache) {
+            Query query = queryCache.get(queryKey);
+            if (query != null) {
+                queryHits.incrementAndGet();
+                return query;
+            }
+        }
+        Query query = createPhoneticQuery(field, searchString);
+        synchronized (queryCache) {
+            queryCache.put(queryKey, query);
+        }
+        return query;
+    }
+
+    public String getStatistics() {
+        return String.format("%d compilation(s), %d query cache hit(s), %d template cache hit(s), %d rejected regex(es), "
+                + "%d rejected leading wildcard(s)", compileCount.get(), queryHits.get(), templateHits.get(),
+                rejectedRegexCount.get(), rejectedWildcardCount.get());
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    /*
+     * Creates the regular expression query, whose constructor builds the automaton. The
+     * pattern is rejected if it is too long, malformed or its automaton gets too large.
+     */
+    private Query createRegexQuery(String field, String pattern) {
+        if (pattern.length() > MAX_REGEX_LENGTH) {
+            return rejectRegex(field, pattern, "the pattern is longer than " + MAX_REGEX_LENGTH + " characters");
+        }
+        try {
+            return new RegexpQuery(new Term(field, pattern), RegExp.ALL, MAX_REGEX_DETERMINIZED_STATES);
+        }
+        catch (TooComplexToDeterminizeException e) {
+            return rejectRegex(field, pattern, "the pattern is too complex");
+        }
+        catch (IllegalArgumentException e) {
+            return rejectRegex(field, pattern, e.getMessage());
+        }
+    }
+
+    private Query rejectRegex(String field, String pattern, String reason) {
+        rejectedRegexCount.incrementAndGet();
+        logger.debug("Rejected the regular expression '{}': {}", pattern, reason);
+        return LuceneUtils.createTermQuery(field, ""); // return an empty term query
+    }
+
+    private Query createPhoneticQuery(String field, String searchString) {
+        List<String> codes = new ArrayList<>();
+        analyze(phoneticAnalyzer, field, searchString, codes, null);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        int clauseCount = 0;
+        for (String code : codes) {
+            if (code.length() < PhoneticAnalyzer.DEFAULT_MIN_GRAM_SIZE) {
+                continue; // too short to be indexed
+            }
+            if (code.length() > PhoneticAnalyzer.DEFAULT_MAX_GRAM_SIZE) {
+                code = code.substring(0, PhoneticAnalyzer.DEFAULT_MAX_GRAM_SIZE); // the longest indexed n-gram
+            }
+            builder.add(new TermQuery(new Term(field, code)), Occur.MUST);
+            clauseCount++;
+        }
+        if (clauseCount == 0) {
+            return LuceneUtils.createTermQuery(field, ""); // return an empty term query
+        }
+        return builder.build();
+    }
+
+    /*
+     * Checks if the text is an absolute IRI, rather than a CURIE, by its scheme
+     */
+    private static boolean isFullIri(String text) {
+        return text.contains("://") || text.startsWith("urn:") || text.startsWith("mailto:");
+    }
+
+    private static boolean containsWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Escapes the characters that a wildcard query would take as wildcards
+     */
+    private static String escapeWildcards(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR || c == WildcardQuery.WILDCARD_ESCAPE) {
+                sb.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private CompanionFields getCompanionFields(String field) {
+        return new CompanionFields(
+                getCompanionField(PREFIX_FIELDS, field),
+                getCompanionField(REVERSED_FIELDS, field),
+                getCompanionField(TRIGRAM_FIELDS, field));
+    }
+
+    /*
+     * Gets the companion field of the given field, or null if the field has no such
+     * companion field in the current index.
+     */
+    private String getCompanionField(Map<String, String> companionFields, String field) {
+        String companionField = companionFields.get(field);
+        if (companionField != null && indexFieldChecker.test(companionField)) {
+            return companionField;
+        }
+        return null;
+    }
+
+    private Query instantiate(String field, CompanionFields companions, QueryTemplate template) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        List<BooleanClause> clauses = new ArrayList<>();
+        for (ClauseTemplate clauseTemplate : template.clauses) {
+            Query query = createClauseQuery(field, companions, clauseTemplate);
+            if (query != null) {
+                clauses.add(new BooleanClause(query, clauseTemplate.occur));
+            }
+        }
+        if (clauses.isEmpty()) {
+            return LuceneUtils.createTermQuery(field, ""); // return an empty term query
+        }
+        if (clauses.size() == 1 && !clauses.get(0).isProhibited()) {
+            return clauses.get(0).getQuery();
+        }
+        for (BooleanClause clause : clauses) {
+            builder.add(clause);
+        }
+        return builder.build();
+    }
+
+    private Query createClauseQuery(String field, CompanionFields companions, ClauseTemplate clause) {
+        switch (clause.type) {
+            case PREFIX:
+                if (companions.prefixField != null && isPrefixGram(clause.text)) {
+                    return new TermQuery(new Term(companions.prefixField, clause.text)); // a word prefix lookup
+                }
+                return new PrefixQuery(new Term(field, clause.text));
+            case WILDCARD:
+                return createWildcardQuery(field, companions, clause.text);
+            case PHRASE:
+                return createPhraseQuery(field, clause.text);
+            case WORD:
+            default:
+                return createWordQuery(field, clause.text);
+        }
+    }
+
+    /*
+     * Creates a query for a word with wildcards. A suffix word is searched as a prefix of the
+     * reversed words and an infix word as a phrase of trigrams, such that neither has to scan
+     * the term dictionary of the field. Any other pattern, and an infix fragment shorter than
+     * a trigram, is searched by a wildcard query, unless the pattern has a leading wildcard
+     * and too few other characters.
+     */
+    private Query createWildcardQuery(String field, CompanionFields companions, String pattern) {
+        if (isSuffixPattern(pattern)) {
+            String suffix = pattern.substring(1);
+            if (companions.reversedField != null && isWord(suffix)) {
+                return LuceneUtils.createReversedSuffixQuery(companions.reversedField, suffix);
+            }
+        }
+        else if (isInfixPattern(pattern)) {
+            String infix = pattern.substring(1, pattern.length() - 1);
+            if (companions.trigramField != null && infix.length() >= TrigramAnalyzer.GRAM_SIZE) {
+                Query query = createPhraseQuery(companions.trigramField, infix);
+                if (query != null) {
+                    return query;
+                }
+            }
+        }
+        if (hasLeadingWildcard(pattern) && countLiterals(pattern) < MIN_LEADING_WILDCARD_LITERALS) {
+            rejectedWildcardCount.incrementAndGet();
+            logger.debug("Rejected the wildcard word '{}': a leading wildcard needs at least {} other characters",
+                    pattern, MIN_LEADING_WILDCARD_LITERALS);
+            return LuceneUtils.createTermQuery(field, ""); // return an empty term query
+        }
+        return new WildcardQuery(new Term(field, pattern));
+    }
+
+    private static boolean hasLeadingWildcard(String pattern) {
+        return !pattern.isEmpty() && (pattern.charAt(0) == '*' || pattern.charAt(0) == '?');
+    }
+
+    private static int countLiterals(String pattern) {
+        int count = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '*' && c != '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isSuffixPattern(String pattern) {
+        return pattern.length() > 1
+                && pattern.charAt(0) == '*'
+                && !hasWildcard(pattern.substring(1));
+    }
+
+    private static boolean isInfixPattern(String pattern) {
+        return pattern.length() > 2
+                && pattern.charAt(0) == '*'
+                && pattern.charAt(pattern.length() - 1) == '*'
+                && !hasWildcard(pattern.substring(1, pattern.length() - 1));
+    }
+
+    private static boolean hasWildcard(String text) {
+        return text.indexOf('*') >= 0 || text.indexOf('?') >= 0;
+    }
+
+    /*
+     * Checks if the text is a single word that the analyzer would not split.
+     */
+    private static boolean isWord(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return !text.isEmpty();
+    }
+
+    /*
+     * Checks if the prefix is one of the n-grams in the word prefix field, i.e., it has a
+     * bounded length and it is a single word that the analyzer would not split.
+     */
+    private static boolean isPrefixGram(String prefix) {
+        if (prefix.length() < MIN_PREFIX_GRAM_SIZE || prefix.length() > MAX_PREFIX_GRAM_SIZE) {
+            return false;
+        }
+        return isWord(prefix);
+    }
+
+    private Query createWordQuery(String field, String text) {
+        List<String> tokens = new ArrayList<>();
+        analyze(field, text, tokens, null);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        if (tokens.size() == 1) {
+            return new TermQuery(new Term(field, tokens.get(0)));
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String token : tokens) {
+            builder.add(new TermQuery(new Term(field, token)), Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private Query createPhraseQuery(String field, String text) {
+        List<String> tokens = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        analyze(field, text, tokens, positions);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        if (tokens.size() == 1) {
+            return new TermQuery(new Term(field, tokens.get(0)));
+        }
+        PhraseQuery.Builder builder = new PhraseQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            builder.add(new Term(field, tokens.get(i)), positions.get(i));
+        }
+        return builder.build();
+    }
+
+    private void analyze(String field, String text, List<String> tokens, List<Integer> positions) {
+        analyze(analyzer, field, text, tokens, positions);
+    }
+
+    private static void analyze(Analyzer analyzer, String field, String text, List<String> tokens, List<Integer> positions) {
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+            stream.reset();
+            int position = -1;
+            while (stream.incrementToken()) {
+                position += posIncAtt.getPositionIncrement();
+                tokens.add(termAtt.toString());
+                if (positions != null) {
+                    positions.add(position);
+                }
+            }
+            stream.end();
+        }
+        catch (IOException e) {
+            logger.error("Unable to analyze the search string: {}", text, e);
+        }
+    }
+
+    /**
+     * The parsed form of a search string.
+     */
+    private static class QueryTemplate {
+
+        private final List<ClauseTemplate> clauses;
+
+        private QueryTemplate(List<ClauseTemplate> clauses) {
+            this.clauses = clauses;
+        }
+
+        /*
+         * Parses the search string. The prefix and wildcard words are not analyzed, hence
+         * they are lowercased here unless the target field keeps the letter case.
+         */
+        private static QueryTemplate parse(String searchString, boolean lowercase) {
+            List<ClauseTemplate> clauses = new ArrayList<>();
+            Matcher m = CLAUSE_PATTERN.matcher(searchString);
+            while (m.find()) {
+                Occur occur = getOccur(m.group(1));
+                String text = m.group(2);
+                if (text.startsWith("\"")) {
+                    String phrase = text.endsWith("\"") && text.length() > 1
+                            ? text.substring(1, text.length() - 1)
+                            : text.substring(1);
+                    clauses.add(new ClauseTemplate(occur, ClauseType.PHRASE, phrase));
+                }
+                else if (isPrefix(text)) {
+                    String prefix = text.substring(0, text.length() - 1);
+                    clauses.add(new ClauseTemplate(occur, ClauseType.PREFIX, lowercase ? prefix.toLowerCase() : prefix));
+                }
+                else if (text.indexOf('*') >= 0 || text.indexOf('?') >= 0) {
+                    clauses.add(new ClauseTemplate(occur, ClauseType.WILDCARD, lowercase ? text.toLowerCase() : text));
+                }
+                else {
+                    clauses.add(new ClauseTemplate(occur, ClauseType.WORD, text));
+                }
+            }
+            return new QueryTemplate(Collections.unmodifiableList(clauses));
+        }
+
+        private static Occur getOccur(String sign) {
+            switch (sign) {
+                case "+": return Occur.MUST;
+                case "-": return Occur.MUST_NOT;
+                default: return Occur.SHOULD;
+            }
+        }
+
+        private static boolean isPrefix(String text) {
+            int wildcard = text.indexOf('*');
+            return text.length() > 1
+                    && wildcard == text.length() - 1
+                    && text.indexOf('?') < 0;
+        }
+    }
+
+    /**
+     * The companion fields of an index field that are available in the current index.
+     */
+    private static class CompanionFields {
+
+        private final String prefixField;
+        private final String reversedField;
+        private final String trigramField;
+
+        private CompanionFields(String prefixField, String reversedField, String trigramField) {
+            this.prefixField = prefixField;
+            this.reversedField = reversedField;
+            this.trigramField = trigramField;
+        }
+
+        @Override
+        public String toString() {
+            return prefixField + "|" + reversedField + "|" + trigramField;
+        }
+    }
+
+    private static class ClauseTemplate {
+
+        private final Occur occur;
+        private final ClauseType type;
+        private final String text;
+
+        private ClauseTemplate(Occur occur, ClauseType type, String text) {
+            this.occur = occur;
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    private enum ClauseType {
+        WORD, PHRASE, PREFIX, WILDCARD
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 3329853651281925493L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
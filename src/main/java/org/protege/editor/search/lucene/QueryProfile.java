@@ -0,0 +1,260 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+
+import org.apache.lucene.search.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records where the time of a search went. The profile has an entry for each evaluated
+ * query clause, i.e., each query built by a {@link SearchQueryBuilder}, with the rewritten
+ * Lucene query, the number of index terms the query expanded to, the time and the hits per
+ * index segment, and the time spent by the document handler on the hits. The time of
+ * creating the search results from the hits and the facet counts of the results are
+ * recorded for the whole search.
+ */
+public class QueryProfile {
+
+    private final String searchString;
+
+    private final List<ClauseProfile> clauses = new ArrayList<>();
+
+    private long resultCreationTime = 0; // in nanoseconds
+
+    private int resultCount = 0;
+
+    private SearchFacets facets = SearchFacets.EMPTY;
+
+    public QueryProfile(@Nonnull String searchString) {
+        this.searchString = checkNotNull(searchString);
+    }
+
+    public String getSearchString() {
+        return searchString;
+    }
+
+    /**
+     * Starts the profile of a query clause.
+     */
+    public synchronized ClauseProfile addClause(@Nonnull SearchCategory category, @Nonnull Query query) {
+        ClauseProfile clause = new ClauseProfile(checkNotNull(category), checkNotNull(query));
+        clauses.add(clause);
+        return clause;
+    }
+
+    public synchronized List<ClauseProfile> getClauses() {
+        return Collections.unmodifiableList(new ArrayList<>(clauses));
+    }
+
+    public synchronized void setResults(int resultCount, SearchFacets facets, long resultCreationTime) {
+        this.resultCount = resultCount;
+        this.facets = checkNotNull(facets);
+        this.resultCreationTime = resultCreationTime;
+    }
+
+    /**
+     * Gets the time spent in Lucene by all the clauses, i.e., the query rewrites and the
+     * searches without the document handling, in nanoseconds.
+     */
+    public synchronized long getLuceneTime() {
+        long time = 0;
+        for (ClauseProfile clause : clauses) {
+            time += clause.getLuceneTime();
+        }
+        return time;
+    }
+
+    /**
+     * Gets the time spent by the document handlers and by the result creation, in
+     * nanoseconds.
+     */
+    public synchronized long getPostProcessingTime() {
+        long time = resultCreationTime;
+        for (ClauseProfile clause : clauses) {
+            time += clause.getHandlerTime();
+        }
+        return time;
+    }
+
+    /**
+     * Gets a multi-line report of the profile, for the log and the debug dialog.
+     */
+    public synchronized String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Search profile of '%s': %d clause(s), %.2f ms in Lucene, %.2f ms post-processing, %d result(s)%n",
+                searchString, clauses.size(), toMillis(getLuceneTime()), toMillis(getPostProcessingTime()), resultCount));
+        for (ClauseProfile clause : clauses) {
+            clause.appendReport(sb);
+        }
+        sb.append(String.format("  creating the search results: %.2f ms%n", toMillis(resultCreationTime)));
+        sb.append(String.format("  facets: %s%n", facets));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    /**
+     * The profile of a single query clause.
+     */
+    public static class ClauseProfile {
+
+        private final SearchCategory category;
+
+        private final Query query;
+
+        private Query rewrittenQuery;
+
+        private int expandedTermCount = 0;
+
+        private long rewriteTime = 0;
+
+        private long searchTime = 0;
+
+        private long handlerTime = 0;
+
+        private int hitCount = 0;
+
+        private boolean exhausted = false;
+
+        private final List<SegmentProfile> segments = new ArrayList<>();
+
+        private ClauseProfile(SearchCategory category, Query query) {
+            this.category = category;
+            this.query = query;
+        }
+
+        public SearchCategory getCategory() {
+            return category;
+        }
+
+        public Query getQuery() {
+            return query;
+        }
+
+        public Query getRewrittenQuery() {
+            return rewrittenQuery;
+        }
+
+        /**
+         * Gets the number of index terms matched by the term, prefix, wildcard, fuzzy and
+         * regular expression queries of the clause.
+         */
+        public int getExpandedTermCount() {
+            return expandedTermCount;
+        }
+
+        public int getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Checks if the search budget ran out while the clause was evaluated, such that the
+         * clause found only a part of its hits.
+         */
+        public boolean isExhausted() {
+            return exhausted;
+        }
+
+        public List<SegmentProfile> getSegments() {
+            return Collections.unmodifiableList(segments);
+        }
+
+        /**
+         * Gets the time of the query rewrite and the search without the document handling,
+         * in nanoseconds.
+         */
+        public long getLuceneTime() {
+            return rewriteTime + Math.max(0, searchTime - handlerTime);
+        }
+
+        /**
+         * Gets the time spent by the document handler on the hits, in nanoseconds.
+         */
+        public long getHandlerTime() {
+            return handlerTime;
+        }
+
+        void setRewrite(Query rewrittenQuery, int expandedTermCount, long rewriteTime) {
+            this.rewrittenQuery = rewrittenQuery;
+            this.expandedTermCount = expandedTermCount;
+            this.rewriteTime = rewriteTime;
+        }
+
+        void setSearch(int hitCount, long searchTime, long handlerTime, boolean exhausted) {
+            this.hitCount = hitCount;
+            this.searchTime = searchTime;
+            this.handlerTime = handlerTime;
+            this.exhausted = exhausted;
+        }
+
+        void addSegment(SegmentProfile segment) {
+            segments.add(segment);
+        }
+
+        private void appendReport(StringBuilder sb) {
+            sb.append(String.format("  [%s] %s%n", category, query));
+            if (rewrittenQuery != null && !rewrittenQuery.equals(query)) {
+                sb.append(String.format("    rewritten: %s%n", rewrittenQuery));
+            }
+            sb.append(String.format("    %d expanded term(s), %d hit(s)%s, rewrite %.2f ms, search %.2f ms, handler %.2f ms%n",
+                    expandedTermCount, hitCount, exhausted ? " (budget exhausted)" : "", toMillis(rewriteTime),
+                    toMillis(searchTime - handlerTime), toMillis(handlerTime)));
+            for (SegmentProfile segment : segments) {
+                sb.append(String.format("    segment %d (%d docs): %.2f ms, %d hit(s)%n",
+                        segment.getOrd(), segment.getMaxDoc(), toMillis(segment.getTime()), segment.getHitCount()));
+            }
+        }
+    }
+
+    /**
+     * The time and the hits of a query clause in an index segment.
+     */
+    public static class SegmentProfile {
+
+        private final int ord;
+        private final int maxDoc;
+        private final long time;
+        private final int hitCount;
+
+        SegmentProfile(int ord, int maxDoc, long time, int hitCount) {
+            this.ord = ord;
+            this.maxDoc = maxDoc;
+            this.time = time;
+            this.hitCount = hitCount;
+        }
+
+        public int getOrd() {
+            return ord;
+        }
+
+        public int getMaxDoc() {
+            return maxDoc;
+        }
+
+        /**
+         * Gets the time spent in the segment, including the document handling, in
+         * nanoseconds.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public int getHitCount() {
+            return hitCount;
+        }
+    }
+}
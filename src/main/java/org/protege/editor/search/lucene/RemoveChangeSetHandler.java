@@ -54,8 +54,9 @@ public class RemoveChangeSetHandler extends OWLOntologyChangeVisitorAdapter {
         if (changeAxiom instanceof OWLDeclarationAxiom) {
             OWLEntity entity = ((OWLDeclarationAxiom) changeAxiom).getEntity();
             List<Term> terms = new ArrayList<>();
-            terms.add(new Term(IndexField.ENTITY_IRI, getIri(entity)));
+            terms.add(new Term(IndexField.ENTITY_IRI_KEY, getIri(entity)));
             terms.add(new Term(IndexField.ENTITY_TYPE, getType(entity)));
+            terms.add(new Term(IndexField.DOC_KIND, DocKind.ENTITY));
             removeFilters.add(terms);
         }
         else if (changeAxiom instanceof OWLAnnotationAssertionAxiom) {
@@ -63,9 +64,11 @@ public class RemoveChangeSetHandler extends OWLOntologyChangeVisitorAdapter {
             if (axiom.getSubject() instanceof IRI) {
                 List<Term> terms = new ArrayList<>();
                 OWLEntity entity = getOWLEntity((IRI) axiom.getSubject());
-                terms.add(new Term(IndexField.ENTITY_IRI, getIri(entity)));
-                terms.add(new Term(IndexField.ANNOTATION_IRI, getIri(axiom.getProperty())));
-                terms.add(new Term(IndexField.ANNOTATION_TEXT, getAnnotationText(axiom.getAnnotation())));
+                terms.add(new Term(IndexField.ENTITY_IRI_KEY, getIri(entity)));
+                terms.add(new Term(IndexField.ANNOTATION_IRI_KEY, getIri(axiom.getProperty())));
+                terms.add(new Term(IndexField.ANNOTATION_TEXT_KEYWORD,
+                        IndexDocumentBuilder.createKeyword(getAnnotationText(axiom.getAnnotation()))));
+                terms.add(new Term(IndexField.DOC_KIND, DocKind.ANNOTATION));
                 removeFilters.add(terms);
             }
         }
@@ -0,0 +1,82 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.OWLModelManager;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A bounded least-recently-used cache of entity renderings that is shared across
+ * searches. The cache must be cleared whenever the entity rendering may change,
+ * e.g., when the renderer is changed or when the ontology is modified.
+ */
+public class RenderingCache {
+
+    public static final int DEFAULT_MAX_SIZE = 50000;
+
+    private final OWLModelManager modelManager;
+
+    private final Map<OWLEntity, String> renderings;
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    public RenderingCache(@Nonnull OWLModelManager modelManager) {
+        this(modelManager, DEFAULT_MAX_SIZE);
+    }
+
+    public RenderingCache(@Nonnull OWLModelManager modelManager, final int maxSize) {
+        this.modelManager = checkNotNull(modelManager);
+        this.renderings = new LinkedHashMap<OWLEntity, String>(1024, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OWLEntity, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the rendering of the given entity, either from the cache or from the
+     * model manager.
+     */
+    public String getRendering(@Nonnull OWLEntity entity) {
+        synchronized (renderings) {
+            String rendering = renderings.get(entity);
+            if (rendering != null) {
+                hitCount.incrementAndGet();
+                return rendering;
+            }
+        }
+        missCount.incrementAndGet();
+        String rendering = modelManager.getRendering(entity);
+        synchronized (renderings) {
+            renderings.put(entity, rendering);
+        }
+        return rendering;
+    }
+
+    public void clear() {
+        synchronized (renderings) {
+            renderings.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (renderings) {
+            return renderings.size();
+        }
+    }
+
+    public String getStatistics() {
+        return String.format("%d hit(s), %d miss(es), %d entries", hitCount.get(), missCount.get(), size());
+    }
+}
@@ -1,21 +1,10 @@
 package org.protege.editor.search.lucene;
 
-import org.protege.editor.owl.OWLEditorKit;
-import org.protege.editor.owl.model.find.OWLEntityFinder;
 import org.protege.editor.owl.model.search.SearchCategory;
-import org.protege.editor.owl.model.search.SearchMetadata;
-import org.protege.editor.owl.model.search.SearchResult;
-import org.protege.editor.owl.model.search.SearchResultMatch;
 
-import org.apache.lucene.document.Document;
-import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.OWLEntity;
-
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
-
-import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Author: Josef Hardi <josef.hardi@stanford.edu><br>
@@ -25,52 +14,39 @@ import com.google.common.collect.ImmutableList;
  */
 public class ResultDocumentHandler extends AbstractDocumentHandler {
 
-    private OWLEditorKit editorKit;
-    private Set<SearchResult> results = new HashSet<>();
+    private final Map<SearchCategory, BitSet> categoryHits = new EnumMap<>(SearchCategory.class);
 
-    public ResultDocumentHandler(OWLEditorKit editorKit) {
-        this.editorKit = editorKit;
+    public ResultDocumentHandler() {
+        // NO-OP
     }
 
-    public Set<SearchResult> getSearchResults() {
-        return results;
+    /**
+     * Gets the document ids of the handled documents, grouped by the search category in
+     * which the documents were found. The search results are created from these hits by
+     * {@link SearchResultFactory}.
+     */
+    public Map<SearchCategory, BitSet> getCategoryHits() {
+        return categoryHits;
     }
 
-    @Override
-    public void handle(SearchCategory category, Document doc) {
-        Optional<OWLEntity> subject = getOWLEntity(doc.get(IndexField.ENTITY_IRI));
-        if (subject.isPresent()) {
-            SearchMetadata metadata = createSearchMetadata(category, doc, subject.get());
-            SearchResult searchResult = new SearchResult(metadata, createEmptySearchResultMatch());
-            results.add(searchResult);
+    /**
+     * Gets the document ids of all the handled documents.
+     */
+    public BitSet getHits() {
+        BitSet hits = new BitSet();
+        for (BitSet docIds : categoryHits.values()) {
+            hits.or(docIds);
         }
+        return hits;
     }
 
-    private SearchMetadata createSearchMetadata(SearchCategory category, Document doc, OWLEntity subject) {
-        String subjectName = editorKit.getOWLModelManager().getRendering(subject);
-        switch (category) {
-            case IRI: return new SearchMetadata(category, "IRI", subject, subjectName, getContent(doc, IndexField.ENTITY_IRI));
-            case DISPLAY_NAME: return new SearchMetadata(category, "DISPLAY NAME", subject, subjectName, getContent(doc, IndexField.DISPLAY_NAME));
-            case ANNOTATION_VALUE: return new SearchMetadata(category, getContent(doc, IndexField.ANNOTATION_DISPLAY_NAME), subject, subjectName, getContent(doc, IndexField.ANNOTATION_TEXT));
-            case LOGICAL_AXIOM: return new SearchMetadata(category, getContent(doc, IndexField.AXIOM_TYPE), subject, subjectName, getContent(doc, IndexField.AXIOM_DISPLAY_NAME));
-            case OTHER: return new SearchMetadata(category, "OTHER", subject, subjectName, "(Found in multiple fields)");
-            default: break;
+    @Override
+    public void handle(SearchCategory category, int docId) {
+        BitSet docIds = categoryHits.get(category);
+        if (docIds == null) {
+            docIds = new BitSet();
+            categoryHits.put(category, docIds);
         }
-        return null;
-    }
-
-    private String getContent(Document doc, String fieldName) {
-        return doc.get(fieldName);
-    }
-
-    private Optional<OWLEntity> getOWLEntity(String identifier) {
-        OWLEntityFinder finder = editorKit.getOWLModelManager().getOWLEntityFinder();
-        return finder.getEntities(IRI.create(identifier)).stream().findFirst();
-    }
-
-    private ImmutableList<SearchResultMatch> createEmptySearchResultMatch() {
-        ImmutableList.Builder<SearchResultMatch> builder = new ImmutableList.Builder<>();
-        builder.add(new SearchResultMatch("", 0, 0));
-        return builder.build();
+        docIds.set(docId);
     }
 }
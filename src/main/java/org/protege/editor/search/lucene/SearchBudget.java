@@ -0,0 +1,109 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.QueryTimeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Decides when a running search should stop. A search stops for good once it gets
+ * superseded by a newer search, while a query that exceeds its time budget stops
+ * early and keeps the hits it collected so far. The budget is checked inside the
+ * query execution, both by the index reader while it enumerates the terms of a
+ * multi-term query and by the hit collector.
+ */
+public class SearchBudget implements QueryTimeout {
+
+    /**
+     * A budget for searches that are never superseded and have no time limit.
+     */
+    public static final SearchBudget UNLIMITED = new SearchBudget(() -> false, 0);
+
+    private final BooleanSupplier supersededCheck;
+
+    private final long timeBudget; // in nanoseconds, 0 means no limit
+
+    private volatile long queryStartTime = System.nanoTime();
+
+    private volatile boolean superseded = false;
+
+    private volatile boolean expired = false;
+
+    /**
+     * Creates a search budget.
+     *
+     * @param supersededCheck
+     *          Returns <code>true</code> when a newer search has started
+     * @param timeBudget
+     *          The maximum running time of each query in milliseconds, or 0 for no limit
+     */
+    public SearchBudget(@Nonnull BooleanSupplier supersededCheck, long timeBudget) {
+        this.supersededCheck = checkNotNull(supersededCheck);
+        this.timeBudget = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeBudget));
+    }
+
+    /**
+     * Restarts the time budget for the next query.
+     */
+    public void startQuery() {
+        queryStartTime = System.nanoTime();
+    }
+
+    @Override
+    public boolean shouldExit() {
+        if (superseded || supersededCheck.getAsBoolean()) {
+            superseded = true;
+            return true;
+        }
+        if (timeBudget > 0 && System.nanoTime() - queryStartTime > timeBudget) {
+            expired = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the index reader should check the budget while it enumerates terms. Every
+     * budget but {@link #UNLIMITED} can be superseded, even without a time limit, hence a
+     * superseded search stops in the middle of an expensive term enumeration.
+     */
+    public boolean isTimeoutEnabled() {
+        return this != UNLIMITED;
+    }
+
+    /**
+     * Checks if the search was superseded by a newer search, in which case its results
+     * should be discarded.
+     */
+    public boolean isSuperseded() {
+        return superseded;
+    }
+
+    /**
+     * Checks if any query of the search ran out of time, in which case the search results
+     * are incomplete.
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+
+    public boolean isExhausted() {
+        return superseded || expired;
+    }
+
+    /**
+     * Thrown by the hit collector when the search budget is exhausted.
+     */
+    public static class BudgetExhaustedException extends RuntimeException {
+
+        private static final long serialVersionUID = -3204562417659820193L;
+
+        public BudgetExhaustedException() {
+            super("Search budget exhausted");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.protege.editor.search.lucene;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Coalesces the searches of fast keystrokes. The first search after a pause starts at
+ * once, while a search that follows the previous one within the debounce delay waits for
+ * the delay, and it is replaced if yet another search arrives in the meantime. Hence only
+ * the latest search of a burst of keystrokes gets parsed, compiled and evaluated.
+ * <p>
+ * The delay adapts to the observed search latency: waiting for the next keystroke costs at
+ * most as long as running a search that the keystroke would supersede. The delay is kept
+ * between {@link #MIN_DELAY} and {@link #MAX_DELAY} such that fast searches still coalesce
+ * the keystrokes of a fast typist and slow searches do not make the search field sluggish.
+ */
+public class SearchDebouncer {
+
+    public static final long MIN_DELAY = 30; // in milliseconds
+
+    public static final long MAX_DELAY = 300; // in milliseconds
+
+    /*
+     * The weight of the latest latency in the moving average
+     */
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private ScheduledFuture<?> pendingTask;
+
+    private long lastSubmitTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(MAX_DELAY);
+
+    private volatile double averageLatency = MIN_DELAY; // in milliseconds
+
+    private final AtomicLong submittedCount = new AtomicLong(0);
+    private final AtomicLong replacedCount = new AtomicLong(0);
+
+    public SearchDebouncer() {
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "lucene-search-debouncer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Schedules the search task, replacing the search task that has not started yet.
+     *
+     * @param task
+     *          The task that parses and submits the search
+     * @return The delay of the task in milliseconds
+     */
+    public synchronized long submit(@Nonnull Runnable task) {
+        checkNotNull(task);
+        submittedCount.incrementAndGet();
+        long now = System.nanoTime();
+        long delay = getDelay();
+        boolean replaced = pendingTask != null && pendingTask.cancel(false);
+        if (replaced) {
+            replacedCount.incrementAndGet();
+        }
+        if (!replaced && now - lastSubmitTime > TimeUnit.MILLISECONDS.toNanos(delay)) {
+            delay = 0; // the first keystroke after a pause
+        }
+        lastSubmitTime = now;
+        pendingTask = executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+        return delay;
+    }
+
+    /**
+     * Records the time a search took from its start until its results were shown.
+     *
+     * @param latency
+     *          The search latency in milliseconds
+     */
+    public void recordLatency(long latency) {
+        averageLatency = LATENCY_WEIGHT * latency + (1 - LATENCY_WEIGHT) * averageLatency;
+    }
+
+    /**
+     * Gets the current debounce delay in milliseconds.
+     */
+    public long getDelay() {
+        return Math.max(MIN_DELAY, Math.min(MAX_DELAY, Math.round(averageLatency)));
+    }
+
+    public String getStatistics() {
+        long submitted = submittedCount.get();
+        long replaced = replacedCount.get();
+        return String.format("%d search(es) submitted, %d replaced before they started, %d ms delay",
+                submitted, replaced, getDelay());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchResult;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The number of search results per entity type, per axiom type and per annotation
+ * property. The entity types count the distinct subject entities of the results, the
+ * axiom types count the logical axiom results and the annotation properties count the
+ * annotation value results.
+ * <p>
+ * The facets are counted with the search results and they travel with them, i.e., the
+ * results that the search manager hands to a search result handler, cached or not, carry
+ * their facets (see {@link #of(Collection)}).
+ */
+public class SearchFacets {
+
+    public static final SearchFacets EMPTY = new SearchFacets(
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, Integer> entityTypeCounts;
+    private final Map<String, Integer> axiomTypeCounts;
+    private final Map<String, Integer> annotationPropertyCounts;
+
+    public SearchFacets(Map<String, Integer> entityTypeCounts, Map<String, Integer> axiomTypeCounts,
+            Map<String, Integer> annotationPropertyCounts) {
+        this.entityTypeCounts = Collections.unmodifiableMap(entityTypeCounts);
+        this.axiomTypeCounts = Collections.unmodifiableMap(axiomTypeCounts);
+        this.annotationPropertyCounts = Collections.unmodifiableMap(annotationPropertyCounts);
+    }
+
+    /**
+     * Gets the facets of the given search results, or {@link #EMPTY} if the results were
+     * not created by the Lucene search manager.
+     */
+    public static SearchFacets of(Collection<SearchResult> results) {
+        if (results instanceof LazySearchResultList) {
+            return ((LazySearchResultList) results).getFacets();
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Gets the number of distinct subject entities per entity type name, e.g., "Class".
+     */
+    public Map<String, Integer> getEntityTypeCounts() {
+        return entityTypeCounts;
+    }
+
+    /**
+     * Gets the number of logical axiom results per axiom type name, e.g., "SubClassOf".
+     */
+    public Map<String, Integer> getAxiomTypeCounts() {
+        return axiomTypeCounts;
+    }
+
+    /**
+     * Gets the number of annotation value results per annotation property display name.
+     */
+    public Map<String, Integer> getAnnotationPropertyCounts() {
+        return annotationPropertyCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "entity types " + entityTypeCounts + ", axiom types " + axiomTypeCounts
+                + ", annotation properties " + annotationPropertyCounts;
+    }
+}
@@ -0,0 +1,153 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+import org.semanticweb.owlapi.model.EntityType;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates the filter queries that restrict a search to a kind of document or to the
+ * documents of some entity types. The filters match few distinct terms and they are
+ * used by almost every search, hence their per-segment bitsets are kept in the query
+ * cache of the index searcher (see {@link IndexDelegator}), and applying a filter costs
+ * a bitset intersection instead of a postings walk.
+ */
+public final class SearchFilters {
+
+    private static final Map<String, Query> docKindFilters = new ConcurrentHashMap<>();
+
+    private static final Map<String, Query> entityTypeFilters = new ConcurrentHashMap<>();
+
+    private static final List<String> DOC_KINDS = Arrays.asList(DocKind.ENTITY, DocKind.ANNOTATION, DocKind.AXIOM);
+
+    private SearchFilters() {
+        // NO-OP
+    }
+
+    /**
+     * Gets the filter that matches the documents of the given kind.
+     *
+     * @param docKind
+     *          One of the {@link DocKind} values
+     */
+    public static Query docKind(@Nonnull String docKind) {
+        checkNotNull(docKind);
+        return docKindFilters.computeIfAbsent(docKind, kind -> new TermQuery(new Term(IndexField.DOC_KIND, kind)));
+    }
+
+    /**
+     * Gets the filter that matches the documents whose subject entity has one of the given
+     * entity types.
+     */
+    public static Query entityTypes(@Nonnull Collection<EntityType<?>> entityTypes) {
+        checkNotNull(entityTypes);
+        if (entityTypes.size() == 1) {
+            return entityType(entityTypes.iterator().next());
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (EntityType<?> entityType : entityTypes) {
+            builder.add(entityType(entityType), Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    public static Query entityType(@Nonnull EntityType<?> entityType) {
+        checkNotNull(entityType);
+        return entityTypeFilters.computeIfAbsent(entityType.getName(),
+                typeName -> new TermQuery(new Term(IndexField.ENTITY_TYPE, typeName)));
+    }
+
+    /**
+     * Gets the filter that matches the annotation documents of the given annotation
+     * property. The property is matched case-insensitively by its IRI, by the local name of
+     * its IRI or by its display name, hence the filter works with any entity rendering. A
+     * CURIE, e.g., "rdfs:label", is matched by its local name.
+     *
+     * @param property
+     *          The annotation property as written in the search string
+     */
+    public static Query annotationProperty(@Nonnull String property) {
+        checkNotNull(property);
+        String name = property.trim();
+        if (name.startsWith("<") && name.endsWith(">")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        String key = IndexDocumentBuilder.createKeyword(name);
+        if (!isCurie(name)) {
+            return new TermQuery(new Term(IndexField.ANNOTATION_PROPERTY_KEY, key));
+        }
+        String localNameKey = IndexDocumentBuilder.createKeyword(IndexDocumentBuilder.getLocalName(name));
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(new TermQuery(new Term(IndexField.ANNOTATION_PROPERTY_KEY, key)), Occur.SHOULD);
+        builder.add(new TermQuery(new Term(IndexField.ANNOTATION_PROPERTY_KEY, localNameKey)), Occur.SHOULD);
+        return builder.build();
+    }
+
+    /**
+     * Gets the filters that should be cached as soon as an index reader is opened.
+     */
+    public static List<Query> getWarmingFilters() {
+        Query[] filters = new Query[DOC_KINDS.size() + EntityType.values().size()];
+        int i = 0;
+        for (String docKind : DOC_KINDS) {
+            filters[i++] = docKind(docKind);
+        }
+        for (EntityType<?> entityType : EntityType.values()) {
+            filters[i++] = entityType(entityType);
+        }
+        return Collections.unmodifiableList(Arrays.asList(filters));
+    }
+
+    /**
+     * Creates the caching policy of the index searchers. The filters of this class, including
+     * the term lookups of the annotation property filters, are cached on every segment from
+     * their first use, while the other queries are cached once they have been used a few
+     * times, as decided by the default Lucene policy.
+     */
+    public static QueryCachingPolicy createCachingPolicy() {
+        final QueryCachingPolicy defaultPolicy = new UsageTrackingQueryCachingPolicy();
+        return new QueryCachingPolicy() {
+
+            @Override
+            public void onUse(Query query) {
+                defaultPolicy.onUse(query);
+            }
+
+            @Override
+            public boolean shouldCache(Query query, LeafReaderContext context) throws IOException {
+                return isFilter(query) || defaultPolicy.shouldCache(query, context);
+            }
+        };
+    }
+
+    private static boolean isCurie(String name) {
+        int colon = name.indexOf(':');
+        return colon > 0 && colon < name.length() - 1 && !name.contains("://");
+    }
+
+    private static boolean isFilter(Query query) {
+        if (query instanceof TermQuery) {
+            String field = ((TermQuery) query).getTerm().field();
+            return IndexField.DOC_KIND.equals(field) || IndexField.ENTITY_TYPE.equals(field)
+                    || IndexField.ANNOTATION_PROPERTY_KEY.equals(field);
+        }
+        return false;
+    }
+}
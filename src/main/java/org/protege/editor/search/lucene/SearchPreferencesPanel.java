@@ -28,6 +28,16 @@ public class SearchPreferencesPanel extends OWLPreferencesPanel {
 
     private JSpinner spnOntologySize = new JSpinner();
 
+    private JComboBox<IndexDirectoryType> cmbDirectoryType = new JComboBox<>(IndexDirectoryType.values());
+
+    private JComboBox<SuggestionRanking> cmbSuggestionRanking = new JComboBox<>(SuggestionRanking.values());
+
+    private JSpinner spnQueryTimeBudget = new JSpinner(new SpinnerNumberModel(0, 0, 600000, 500));
+
+    private JSpinner spnPoolMemoryBudget = new JSpinner(new SpinnerNumberModel(0, 0, 65536, 32));
+
+    private JSpinner spnPoolFileBudget = new JSpinner(new SpinnerNumberModel(0, 0, 65536, 64));
+
     @Override
     public void initialise() throws Exception {
         setLayout(new BorderLayout());
@@ -123,6 +133,74 @@ public class SearchPreferencesPanel extends OWLPreferencesPanel {
         pnlAdvancedOption.add(spnOntologySize);
         pnlAdvancedOption.add(new JLabel(" MB"));
         panel.addGroupComponent(pnlAdvancedOption);
+
+        JCheckBox chkTypeAheadIndex = new JCheckBox("Index word prefixes for faster type-ahead search (applies after the index is rebuilt)");
+        chkTypeAheadIndex.setSelected(LuceneIndexPreferences.useTypeAheadIndex());
+        chkTypeAheadIndex.addActionListener(evt -> LuceneIndexPreferences.setTypeAheadIndex(chkTypeAheadIndex.isSelected()));
+        panel.addGroupComponent(chkTypeAheadIndex);
+
+        JCheckBox chkSubstringIndex = new JCheckBox("Index reversed words and trigrams for faster suffix and infix search (applies after the index is rebuilt)");
+        chkSubstringIndex.setSelected(LuceneIndexPreferences.useSubstringIndex());
+        chkSubstringIndex.addActionListener(evt -> LuceneIndexPreferences.setSubstringIndex(chkSubstringIndex.isSelected()));
+        panel.addGroupComponent(chkSubstringIndex);
+
+        JCheckBox chkPhoneticSearch = new JCheckBox("Also find display names that sound alike (applies after the index is rebuilt)");
+        chkPhoneticSearch.setSelected(LuceneIndexPreferences.usePhoneticSearch());
+        chkPhoneticSearch.addActionListener(evt -> LuceneIndexPreferences.setPhoneticSearch(chkPhoneticSearch.isSelected()));
+        panel.addGroupComponent(chkPhoneticSearch);
+
+        JPanel pnlDirectoryType = new JPanel();
+        pnlDirectoryType.add(new JLabel("Read the index files through"));
+        cmbDirectoryType.setSelectedItem(LuceneIndexPreferences.getDirectoryType());
+        cmbDirectoryType.addActionListener(evt ->
+                LuceneIndexPreferences.setDirectoryType((IndexDirectoryType) cmbDirectoryType.getSelectedItem()));
+        pnlDirectoryType.add(cmbDirectoryType);
+        pnlDirectoryType.add(new JLabel(" (applies when the index is next opened)"));
+        panel.addGroupComponent(pnlDirectoryType);
+
+        JCheckBox chkPreloadIndex = new JCheckBox("Preload the term dictionary and doc values files when the index is opened");
+        chkPreloadIndex.setSelected(LuceneIndexPreferences.preloadIndex());
+        chkPreloadIndex.addActionListener(evt -> LuceneIndexPreferences.setPreloadIndex(chkPreloadIndex.isSelected()));
+        panel.addGroupComponent(chkPreloadIndex);
+        panel.addVerticalPadding();
+
+        panel.addGroup("Searching");
+        JPanel pnlQueryTimeBudget = new JPanel();
+        pnlQueryTimeBudget.add(new JLabel("Stop a search query and show the partial results after"));
+        spnQueryTimeBudget.setValue(LuceneIndexPreferences.getQueryTimeBudget());
+        spnQueryTimeBudget.addChangeListener(e -> {
+            SpinnerNumberModel model = (SpinnerNumberModel) spnQueryTimeBudget.getModel();
+            LuceneIndexPreferences.setQueryTimeBudget(model.getNumber().intValue());
+        });
+        pnlQueryTimeBudget.add(spnQueryTimeBudget);
+        pnlQueryTimeBudget.add(new JLabel(" ms (0 = no limit)"));
+        panel.addGroupComponent(pnlQueryTimeBudget);
+
+        JPanel pnlIndexPool = new JPanel();
+        pnlIndexPool.add(new JLabel("Keep the indexes of recently used ontologies open, using at most"));
+        spnPoolMemoryBudget.setValue(LuceneIndexPreferences.getIndexPoolMemoryBudget());
+        spnPoolMemoryBudget.addChangeListener(e -> {
+            SpinnerNumberModel model = (SpinnerNumberModel) spnPoolMemoryBudget.getModel();
+            LuceneIndexPreferences.setIndexPoolMemoryBudget(model.getNumber().intValue());
+        });
+        pnlIndexPool.add(spnPoolMemoryBudget);
+        pnlIndexPool.add(new JLabel(" MB and"));
+        spnPoolFileBudget.setValue(LuceneIndexPreferences.getIndexPoolFileBudget());
+        spnPoolFileBudget.addChangeListener(e -> {
+            SpinnerNumberModel model = (SpinnerNumberModel) spnPoolFileBudget.getModel();
+            LuceneIndexPreferences.setIndexPoolFileBudget(model.getNumber().intValue());
+        });
+        pnlIndexPool.add(spnPoolFileBudget);
+        pnlIndexPool.add(new JLabel(" open files (0 = close right away)"));
+        panel.addGroupComponent(pnlIndexPool);
+
+        JPanel pnlSuggestionRanking = new JPanel();
+        pnlSuggestionRanking.add(new JLabel("Order the entity name suggestions by"));
+        cmbSuggestionRanking.setSelectedItem(LuceneIndexPreferences.getSuggestionRanking());
+        cmbSuggestionRanking.addActionListener(evt ->
+                LuceneIndexPreferences.setSuggestionRanking((SuggestionRanking) cmbSuggestionRanking.getSelectedItem()));
+        pnlSuggestionRanking.add(cmbSuggestionRanking);
+        panel.addGroupComponent(pnlSuggestionRanking);
     }
 
     @Override
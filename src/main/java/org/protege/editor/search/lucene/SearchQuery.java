@@ -1,11 +1,47 @@
 package org.protege.editor.search.lucene;
 
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
 public interface SearchQuery {
 
+    /**
+     * Creates a copy of this search query that only matches the documents accepted
+     * by the given filter.
+     */
+    SearchQuery filter(Query filter);
+
+    /**
+     * Adds the Lucene queries of this search query to the given collection, e.g., to find
+     * the matches to highlight in the search results.
+     */
+    void collectQueries(Collection<Query> queries);
+
     void evaluate(AbstractDocumentHandler handler) throws QueryEvaluationException;
 
     void evaluate(AbstractDocumentHandler handler, SearchProgressListener listener) throws QueryEvaluationException;
 
+    /**
+     * Evaluates the query on the given index searcher within the given search budget. The
+     * evaluation returns normally when the budget gets exhausted, and the handler keeps the
+     * documents it received until then. Use {@link SearchBudget#isExhausted()} to find out
+     * whether the evaluation was complete. If a profile is given, the evaluation also records
+     * the rewritten queries, their term expansions, their time per index segment and the time
+     * spent by the handler in the profile. The profiling adds some overhead, hence it is meant
+     * for finding out why a search is slow.
+     *
+     * @param indexSearcher
+     *          The index searcher that the search acquired for all its queries and its results
+     * @param profile
+     *          The profile of the search, or <code>null</code> if the search is not profiled
+     */
+    void evaluate(IndexSearcher indexSearcher, AbstractDocumentHandler handler, SearchProgressListener listener,
+            SearchBudget budget, @Nullable QueryProfile profile) throws QueryEvaluationException;
+
     public interface SearchProgressListener {
         
         void fireSearchingProgressed(long progress);
@@ -0,0 +1,170 @@
+package org.protege.editor.search.lucene;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the hit sets of the last completed search such that the next search can be
+ * evaluated only against them when it strictly narrows the previous one. A search
+ * narrows the previous search when every previous term has a counterpart term that
+ * matches a subset of documents, e.g., by extending a prefix (<code>+neur*</code>
+ * to <code>+neuro*</code>) or by adding a MUST or a MUST_NOT clause.
+ */
+public class SearchRefinement {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchRefinement.class);
+
+    private static final String DEFAULT_SEARCH_MODE = "-----";
+    private static final String CASE_SENSITIVE_SEARCH_MODE = "C----";
+
+    private SearchResultCache.Key previousKey;
+
+    private List<BitSet> previousHits = new ArrayList<>();
+
+    /**
+     * Records the hit sets of a completed search, one for each search term.
+     */
+    public synchronized void update(@Nonnull SearchResultCache.Key key, @Nonnull List<BitSet> termHits) {
+        checkNotNull(key);
+        checkNotNull(termHits);
+        if (termHits.size() == key.getTerms().size()) {
+            previousKey = key;
+            previousHits = termHits;
+        }
+    }
+
+    public synchronized void clear() {
+        previousKey = null;
+        previousHits = new ArrayList<>();
+    }
+
+    /**
+     * Gets the filters that restrict the search terms of the given search to the hits of
+     * the previous search. The filter at index <code>i</code> applies to the search term
+     * at index <code>i</code>. Additional search terms have no filter.
+     *
+     * @return The list of filters, or an empty optional if the given search does not
+     * narrow the previous search.
+     */
+    public synchronized Optional<List<HitSetFilter>> getFilters(@Nonnull SearchResultCache.Key key) {
+        checkNotNull(key);
+        if (previousKey == null || !narrows(previousKey, key)) {
+            return Optional.empty();
+        }
+        List<HitSetFilter> filters = new ArrayList<>();
+        for (BitSet hits : previousHits) {
+            filters.add(new HitSetFilter(hits));
+        }
+        logger.debug("... refining the previous search {}", previousKey);
+        return Optional.of(filters);
+    }
+
+    /**
+     * Checks if the search identified by <code>current</code> matches a subset of the
+     * documents that the search identified by <code>previous</code> matches, for each
+     * of the previous search terms.
+     */
+    public static boolean narrows(SearchResultCache.Key previous, SearchResultCache.Key current) {
+        if (previous.getReaderVersion() != current.getReaderVersion()) {
+            return false;
+        }
+        if (!previous.getCategories().equals(current.getCategories())) {
+            return false;
+        }
+        if (!previous.getSearchMode().equals(current.getSearchMode())) {
+            return false;
+        }
+        // Only the keyword syntax can be compared, not regex, whole-word, whitespace-insensitive or phonetic searches
+        String searchMode = current.getSearchMode();
+        if (!searchMode.equals(DEFAULT_SEARCH_MODE) && !searchMode.equals(CASE_SENSITIVE_SEARCH_MODE)) {
+            return false;
+        }
+        List<String> previousTerms = previous.getTerms();
+        List<String> currentTerms = current.getTerms();
+        if (currentTerms.size() < previousTerms.size()) {
+            return false;
+        }
+        if (previousTerms.equals(currentTerms)) {
+            return false; // the same search, nothing to refine
+        }
+        for (int i = 0; i < previousTerms.size(); i++) {
+            if (!narrowsTerm(previousTerms.get(i), currentTerms.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean narrowsTerm(String previousTerm, String currentTerm) {
+        int previousSeparator = previousTerm.indexOf('=');
+        int currentSeparator = currentTerm.indexOf('=');
+        String previousField = previousTerm.substring(0, previousSeparator);
+        String currentField = currentTerm.substring(0, currentSeparator);
+        if (!previousField.equals(currentField)) {
+            return false;
+        }
+        String[] previousClauses = previousTerm.substring(previousSeparator + 1).split(" ");
+        String[] currentClauses = currentTerm.substring(currentSeparator + 1).split(" ");
+        for (String currentClause : currentClauses) {
+            if (!isRequiredOrProhibited(currentClause)) {
+                return false; // optional clauses widen the search
+            }
+        }
+        for (String previousClause : previousClauses) {
+            if (previousClause.isEmpty()) {
+                continue;
+            }
+            if (!isRequiredOrProhibited(previousClause)) {
+                return false;
+            }
+            boolean hasNarrowerClause = false;
+            for (String currentClause : currentClauses) {
+                if (narrowsClause(previousClause, currentClause)) {
+                    hasNarrowerClause = true;
+                    break;
+                }
+            }
+            if (!hasNarrowerClause) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean narrowsClause(String previousClause, String currentClause) {
+        if (previousClause.equals(currentClause)) {
+            return true;
+        }
+        if (previousClause.charAt(0) != '+' || currentClause.charAt(0) != '+') {
+            return false; // prohibited clauses must stay the same
+        }
+        if (previousClause.endsWith("*") && currentClause.endsWith("*")) {
+            String previousPrefix = previousClause.substring(0, previousClause.length() - 1);
+            String currentPrefix = currentClause.substring(0, currentClause.length() - 1);
+            return currentPrefix.startsWith(previousPrefix) && !containsSyntax(currentPrefix.substring(1));
+        }
+        return false;
+    }
+
+    private static boolean isRequiredOrProhibited(String clause) {
+        return clause.length() > 1 && (clause.charAt(0) == '+' || clause.charAt(0) == '-');
+    }
+
+    private static boolean containsSyntax(String keyword) {
+        for (char c : keyword.toCharArray()) {
+            if ("\\+-!():^[]\"{}~*?|&/".indexOf(c) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,317 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.find.OWLEntityFinderPreferences;
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchInput;
+import org.protege.editor.owl.model.search.SearchResult;
+import org.protege.editor.owl.model.search.SearchTerm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A least-recently-used cache of search results. The cache is bounded by an
+ * estimate of the memory held by the cached results and it is keyed by the
+ * normalized search input, the selected search categories and the version of
+ * the index reader that produced the results. The cache drops all its entries
+ * once it sees a newer reader version.
+ * <p>
+ * The cache retains the lazy result lists it holds (see {@link LazySearchResultList}),
+ * such that their index readers stay open while they are cached, and it releases them
+ * when they are dropped.
+ */
+public class SearchResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultCache.class);
+
+    public static final long DEFAULT_MAX_MEMORY = 32 * 1024 * 1024; // in bytes
+
+    /*
+     * Rough estimates of the heap held by a search result (metadata, rendering, match list
+     * and the set entry) and by a cache entry (key and map node).
+     */
+    private static final long ESTIMATED_RESULT_SIZE = 512;
+    private static final long ESTIMATED_ENTRY_SIZE = 256;
+
+    private final long maxMemory;
+
+    private final LinkedHashMap<Key, CachedResults> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedMemory = 0;
+
+    private long readerVersion = -1;
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    public SearchResultCache() {
+        this(DEFAULT_MAX_MEMORY);
+    }
+
+    public SearchResultCache(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Gets the cached search results for the given key. A lazy result list is retained for
+     * the caller, which releases it with {@link LazySearchResultList#release()} once it has
+     * handed the results over.
+     *
+     * @param key
+     *          The cache key created by {@link #createKey(SearchInput, Collection, long)}
+     * @return The cached search results, or an empty optional if the key is not cached.
+     */
+    public synchronized Optional<Collection<SearchResult>> get(@Nonnull Key key) {
+        checkNotNull(key);
+        CachedResults cachedResults = cache.get(key);
+        if (cachedResults == null) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        hitCount.incrementAndGet();
+        LazySearchResultList.retainResults(cachedResults.results);
+        return Optional.of(cachedResults.results);
+    }
+
+    /**
+     * Puts the search results into the cache. The results are ignored if they were produced
+     * by an older index reader than the one the cache has seen or if they are larger than
+     * the whole cache budget. The results are cached as they are, hence they must not be
+     * modified afterwards.
+     */
+    public synchronized void put(@Nonnull Key key, @Nonnull Collection<SearchResult> results) {
+        checkNotNull(key);
+        checkNotNull(results);
+        if (key.readerVersion != readerVersion) {
+            return; // stale results
+        }
+        long weight = estimateSize(results);
+        if (weight > maxMemory || !LazySearchResultList.retainResults(results)) {
+            return;
+        }
+        CachedResults previous = cache.put(key, new CachedResults(results, weight));
+        if (previous != null) {
+            usedMemory -= previous.weight;
+            LazySearchResultList.releaseResults(previous.results);
+        }
+        usedMemory += weight;
+        evictEntries();
+    }
+
+    /**
+     * Notifies the cache about the version of the index reader that is currently used for
+     * searching. All cached entries are dropped if the version differs from the last seen
+     * version, i.e., the reader was reopened after an index update.
+     */
+    public synchronized void setReaderVersion(long readerVersion) {
+        if (this.readerVersion != readerVersion) {
+            if (!cache.isEmpty()) {
+                logger.debug("... index reader changed, dropping {} cached search result(s)", cache.size());
+            }
+            clearEntries();
+            this.readerVersion = readerVersion;
+        }
+    }
+
+    /**
+     * Removes all the cache entries, e.g., when a different index gets loaded.
+     */
+    public synchronized void invalidate() {
+        clearEntries();
+        readerVersion = -1;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+    public String getStatistics() {
+        return String.format("%d hit(s), %d miss(es), %.1f%% hit ratio, %d eviction(s), %d entries, ~%d KB",
+                getHitCount(), getMissCount(), getHitRatio() * 100, getEvictionCount(), size(), getUsedMemory() / 1024);
+    }
+
+    /**
+     * Creates a cache key given the parsed search input, the search categories and the
+     * version of the index reader. The search terms are normalized such that inputs that
+     * differ only by letter case (when the search is case-insensitive) or by redundant
+     * whitespace produce the same key.
+     */
+    public static Key createKey(@Nonnull SearchInput searchInput, @Nonnull Collection<SearchCategory> categories, long readerVersion) {
+        return createKey(searchInput, categories, "", readerVersion);
+    }
+
+    /**
+     * Creates a cache key given the parsed search input, the search categories, a key of the
+     * search restrictions (e.g., the selected entity types) and the version of the index
+     * reader.
+     */
+    public static Key createKey(@Nonnull SearchInput searchInput, @Nonnull Collection<SearchCategory> categories,
+            @Nonnull String restrictionKey, long readerVersion) {
+        checkNotNull(searchInput);
+        checkNotNull(categories);
+        checkNotNull(restrictionKey);
+        OWLEntityFinderPreferences prefs = OWLEntityFinderPreferences.getInstance();
+        List<String> normalizedTerms = new ArrayList<>();
+        for (SearchTerm term : searchInput) {
+            normalizedTerms.add(normalize(term, prefs));
+        }
+        Set<SearchCategory> categorySet = categories.isEmpty()
+                ? EnumSet.noneOf(SearchCategory.class)
+                : EnumSet.copyOf(categories);
+        String searchMode = new StringBuilder()
+                .append(prefs.isCaseSensitive() ? 'C' : '-')
+                .append(prefs.isIgnoreWhiteSpace() ? 'S' : '-')
+                .append(prefs.isWholeWords() ? 'W' : '-')
+                .append(prefs.isUseRegularExpressions() ? 'R' : '-')
+                .append(LuceneIndexPreferences.usePhoneticSearch() ? 'P' : '-')
+                .append(restrictionKey)
+                .toString();
+        return new Key(normalizedTerms, categorySet, searchMode, readerVersion);
+    }
+
+    private static String normalize(SearchTerm term, OWLEntityFinderPreferences prefs) {
+        String field = term.getField().trim().replaceAll("\\s+", " ");
+        String searchString = term.getSyntacticString().trim().replaceAll("\\s+", " ");
+        if (!prefs.isCaseSensitive() && !term.searchByRegex()) {
+            field = field.toLowerCase();
+            searchString = searchString.toLowerCase();
+        }
+        return field + "=" + searchString;
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private void evictEntries() {
+        Iterator<Map.Entry<Key, CachedResults>> iter = cache.entrySet().iterator();
+        while (usedMemory > maxMemory && iter.hasNext()) {
+            CachedResults eldest = iter.next().getValue();
+            iter.remove();
+            usedMemory -= eldest.weight;
+            evictionCount.incrementAndGet();
+            LazySearchResultList.releaseResults(eldest.results);
+        }
+    }
+
+    private void clearEntries() {
+        for (CachedResults cachedResults : cache.values()) {
+            LazySearchResultList.releaseResults(cachedResults.results);
+        }
+        cache.clear();
+        usedMemory = 0;
+    }
+
+    private static long estimateSize(Collection<SearchResult> results) {
+        return ESTIMATED_ENTRY_SIZE + results.size() * ESTIMATED_RESULT_SIZE;
+    }
+
+    private static class CachedResults {
+
+        private final Collection<SearchResult> results;
+        private final long weight;
+
+        private CachedResults(Collection<SearchResult> results, long weight) {
+            this.results = results;
+            this.weight = weight;
+        }
+    }
+
+    public static final class Key {
+
+        private final List<String> terms;
+        private final Set<SearchCategory> categories;
+        private final String searchMode;
+        private final long readerVersion;
+
+        Key(List<String> terms, Set<SearchCategory> categories, String searchMode, long readerVersion) {
+            this.terms = terms;
+            this.categories = categories;
+            this.searchMode = searchMode;
+            this.readerVersion = readerVersion;
+        }
+
+        public List<String> getTerms() {
+            return terms;
+        }
+
+        public Set<SearchCategory> getCategories() {
+            return categories;
+        }
+
+        public String getSearchMode() {
+            return searchMode;
+        }
+
+        public long getReaderVersion() {
+            return readerVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = terms.hashCode();
+            result = 31 * result + categories.hashCode();
+            result = 31 * result + searchMode.hashCode();
+            result = 31 * result + Long.hashCode(readerVersion);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.readerVersion == other.readerVersion
+                    && this.terms.equals(other.terms)
+                    && this.categories.equals(other.categories)
+                    && this.searchMode.equals(other.searchMode);
+        }
+
+        @Override
+        public String toString() {
+            return terms + " " + categories + " [" + searchMode + "] @" + readerVersion;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.BytesRef;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates the search results from the search hits. The factory reads only the per-document
+ * values of the entity IRI and the display name sort key, which is enough to drop hits of
+ * unknown entities, to remove duplicates, to count and to sort the results. The rendering
+ * and the metadata of each result are created later by {@link LazySearchResultList}, when
+ * the result is actually requested. The same pass over the hits counts the results per
+ * entity type, axiom type and annotation property (see {@link SearchFacets}), reading
+ * the sorted-set doc values of the hits.
+ */
+public class SearchResultFactory {
+
+    private static final Comparator<ResultRow> RESULT_ORDER = Comparator
+            .comparing((ResultRow row) -> row.sortKey)
+            .thenComparing(row -> row.category)
+            .thenComparingInt(row -> row.docId);
+
+    private final IndexSearcher searcher;
+
+    private final EntityResolver entityResolver;
+
+    private final MatchOffsetExtractor offsetExtractor;
+
+    public SearchResultFactory(@Nonnull IndexSearcher searcher, @Nonnull EntityResolver entityResolver) {
+        this(searcher, entityResolver, MatchOffsetExtractor.EMPTY);
+    }
+
+    public SearchResultFactory(@Nonnull IndexSearcher searcher, @Nonnull EntityResolver entityResolver,
+            @Nonnull MatchOffsetExtractor offsetExtractor) {
+        this.searcher = checkNotNull(searcher);
+        this.entityResolver = checkNotNull(entityResolver);
+        this.offsetExtractor = checkNotNull(offsetExtractor);
+    }
+
+    /**
+     * Creates a lazy list of search results from the given search hits. The list is sorted
+     * by the display name of the subject entity.
+     *
+     * @param categoryHits
+     *          The document ids of the search hits, grouped by search category
+     * @return A list of search results that materializes its elements on demand.
+     */
+    public LazySearchResultList createSearchResults(@Nonnull Map<SearchCategory, BitSet> categoryHits) throws IOException {
+        checkNotNull(categoryHits);
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        List<ResultRow> rows = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Set<OWLEntity> subjects = new HashSet<>();
+        Map<String, Integer> entityTypeCounts = new TreeMap<>();
+        FacetCounter axiomTypeCounter = new FacetCounter(IndexField.AXIOM_TYPE);
+        FacetCounter annotationPropertyCounter = new FacetCounter(IndexField.ANNOTATION_DISPLAY_NAME);
+        for (Map.Entry<SearchCategory, BitSet> entry : categoryHits.entrySet()) {
+            SearchCategory category = entry.getKey();
+            BitSet docIds = entry.getValue();
+            for (int docId = docIds.nextSetBit(0); docId >= 0; docId = docIds.nextSetBit(docId + 1)) {
+                LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+                int leafDocId = docId - leaf.docBase;
+                String entityIri = getValue(leaf, IndexField.ENTITY_IRI, leafDocId);
+                if (entityIri.isEmpty()) {
+                    entityIri = searcher.doc(docId, Collections.singleton(IndexField.ENTITY_IRI)).get(IndexField.ENTITY_IRI);
+                }
+                Optional<OWLEntity> subject = entityResolver.getEntity(entityIri);
+                if (!subject.isPresent()) {
+                    continue;
+                }
+                if (!seen.add(getIdentity(category, docId, entityIri))) {
+                    continue;
+                }
+                String sortKey = getValue(leaf, IndexField.DISPLAY_NAME_SORT, leafDocId);
+                rows.add(new ResultRow(category, docId, subject.get(), sortKey));
+                if (subjects.add(subject.get())) {
+                    entityTypeCounts.merge(subject.get().getEntityType().getName(), 1, Integer::sum);
+                }
+                if (category == SearchCategory.LOGICAL_AXIOM) {
+                    axiomTypeCounter.count(leaf, leafDocId);
+                }
+                else if (category == SearchCategory.ANNOTATION_VALUE) {
+                    annotationPropertyCounter.count(leaf, leafDocId);
+                }
+            }
+        }
+        rows.sort(RESULT_ORDER);
+        SearchFacets facets = new SearchFacets(entityTypeCounts, axiomTypeCounter.getCounts(),
+                annotationPropertyCounter.getCounts());
+        return new LazySearchResultList(searcher, entityResolver, offsetExtractor, rows, facets);
+    }
+
+    /*
+     * The metadata of the IRI, display name and "other" results depend only on the subject
+     * entity, hence the hits from the different documents of the same entity produce one
+     * result. The annotation and axiom results depend on the document content.
+     */
+    private static String getIdentity(SearchCategory category, int docId, String entityIri) {
+        switch (category) {
+            case IRI:
+            case DISPLAY_NAME:
+            case OTHER:
+                return category.name() + " " + entityIri;
+            default:
+                return category.name() + " #" + docId;
+        }
+    }
+
+    private static String getValue(LeafReaderContext leaf, String field, int leafDocId) throws IOException {
+        SortedDocValues values = DocValues.getSorted(leaf.reader(), field);
+        BytesRef value = values.get(leafDocId);
+        return value.utf8ToString();
+    }
+
+    /**
+     * A search hit that passed the validation, i.e., its subject entity exists in the
+     * active ontologies.
+     */
+    static class ResultRow {
+
+        final SearchCategory category;
+        final int docId;
+        final OWLEntity subject;
+        final String sortKey;
+
+        ResultRow(SearchCategory category, int docId, OWLEntity subject, String sortKey) {
+            this.category = category;
+            this.docId = docId;
+            this.subject = subject;
+            this.sortKey = sortKey;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.protege.editor.search.lucene;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the index and search tasks in four lanes, each with its own thread and queue:
+ * <ul>
+ *  <li>The search lane runs the interactive searches. A new search drops the searches
+ *  that are still waiting in the queue, since their results would be discarded anyway.</li>
+ *  <li>The update lane applies the ontology changes to the index. Updates are dropped
+ *  while a full build is waiting to start, because the build reads the latest ontology
+ *  state.</li>
+ *  <li>The build lane (re)builds the whole index on a low priority thread.</li>
+ *  <li>The prefetch lane loads the search result pages that are likely to be shown next,
+ *  such that the event dispatch thread does not read them from the index.</li>
+ * </ul>
+ * Searches never wait behind updates or builds. The update and build tasks share a write
+ * lock such that they never modify the index at the same time. Each lane records its
+ * queue depth and how long its tasks waited before they started.
+ */
+public class SearchTaskScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchTaskScheduler.class);
+
+    private final Lane searchLane = new Lane("search", Thread.NORM_PRIORITY, null);
+
+    private final Lock indexWriteLock = new ReentrantLock();
+
+    private final Lane updateLane = new Lane("update", Thread.NORM_PRIORITY - 1, indexWriteLock);
+
+    private final Lane buildLane = new Lane("build", Thread.MIN_PRIORITY, indexWriteLock);
+
+    private final Lane prefetchLane = new Lane("prefetch", Thread.NORM_PRIORITY - 1, null);
+
+    private volatile Future<?> lastBuild;
+
+    public SearchTaskScheduler() {
+        // NO-OP
+    }
+
+    /**
+     * Schedules a search task and drops the search tasks that have not started yet.
+     */
+    public void submitSearch(@Nonnull Runnable task) {
+        checkNotNull(task);
+        int dropped = searchLane.dropPendingTasks();
+        if (dropped > 0) {
+            logger.debug("... dropped {} superseded search(es) from the queue", dropped);
+        }
+        searchLane.execute(task);
+    }
+
+    /**
+     * Schedules an index update task. The task is dropped if a full index build is
+     * waiting to start.
+     */
+    public void submitUpdate(@Nonnull Runnable task) {
+        checkNotNull(task);
+        if (buildLane.getQueueDepth() > 0) {
+            logger.debug("... dropped index update, a pending index build will include the changes");
+            updateLane.droppedCount.incrementAndGet();
+            return;
+        }
+        updateLane.execute(task);
+    }
+
+    /**
+     * Schedules a task that loads search results ahead of their display. The task never
+     * waits for the index write lock.
+     */
+    public void submitPrefetch(@Nonnull Runnable task) {
+        checkNotNull(task);
+        prefetchLane.execute(task);
+    }
+
+    /**
+     * Schedules a full index build task. Index updates waiting in the queue are dropped
+     * since the build will include their changes.
+     */
+    public void submitBuild(@Nonnull Runnable task) {
+        checkNotNull(task);
+        updateLane.dropPendingTasks();
+        lastBuild = buildLane.submit(task);
+    }
+
+    /**
+     * Checks if an index build is waiting or running.
+     */
+    public boolean isBuildPending() {
+        Future<?> build = lastBuild;
+        return build != null && !build.isDone();
+    }
+
+    /**
+     * Blocks the calling thread until the last scheduled index build has finished.
+     */
+    public void awaitBuild() {
+        Future<?> build = lastBuild;
+        if (build == null) {
+            return;
+        }
+        try {
+            build.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            logger.error("Index build failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        searchLane.shutdown();
+        updateLane.shutdown();
+        buildLane.shutdown();
+        prefetchLane.shutdown();
+    }
+
+    public Lane getSearchLane() {
+        return searchLane;
+    }
+
+    public Lane getUpdateLane() {
+        return updateLane;
+    }
+
+    public Lane getBuildLane() {
+        return buildLane;
+    }
+
+    public Lane getPrefetchLane() {
+        return prefetchLane;
+    }
+
+    public String getStatistics() {
+        return String.format("%s; %s; %s; %s", searchLane.getStatistics(), updateLane.getStatistics(),
+                buildLane.getStatistics(), prefetchLane.getStatistics());
+    }
+
+    /**
+     * A single-threaded task queue with wait-time metrics.
+     */
+    public static class Lane {
+
+        private final String name;
+
+        private final Lock lock;
+
+        private final ThreadPoolExecutor executor;
+
+        private final AtomicLong completedCount = new AtomicLong(0);
+        private final AtomicLong droppedCount = new AtomicLong(0);
+        private final AtomicLong totalWaitTime = new AtomicLong(0); // in nanoseconds
+        private final AtomicLong maxWaitTime = new AtomicLong(0); // in nanoseconds
+
+        private Lane(String name, int priority, Lock lock) {
+            this.name = name;
+            this.lock = lock;
+            AtomicInteger threadCount = new AtomicInteger(0);
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "lucene-" + name + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(priority);
+                return thread;
+            });
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of tasks waiting in the queue.
+         */
+        public int getQueueDepth() {
+            return executor.getQueue().size();
+        }
+
+        public long getCompletedCount() {
+            return completedCount.get();
+        }
+
+        public long getDroppedCount() {
+            return droppedCount.get();
+        }
+
+        /**
+         * Gets the average time the completed tasks waited in the queue, in milliseconds.
+         */
+        public double getAverageWaitTime() {
+            long completed = getCompletedCount();
+            return (completed == 0) ? 0 : (double) totalWaitTime.get() / completed / 1000000;
+        }
+
+        /**
+         * Gets the longest time a task waited in the queue, in milliseconds.
+         */
+        public long getMaxWaitTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+        }
+
+        public String getStatistics() {
+            return String.format("%s lane: %d queued, %d completed, %d dropped, %.1f ms avg wait, %d ms max wait",
+                    name, getQueueDepth(), getCompletedCount(), getDroppedCount(), getAverageWaitTime(), getMaxWaitTime());
+        }
+
+        private void execute(Runnable task) {
+            executor.execute(new TimedTask(task));
+        }
+
+        private Future<?> submit(Runnable task) {
+            return executor.submit(new TimedTask(task));
+        }
+
+        private int dropPendingTasks() {
+            List<Runnable> pendingTasks = new ArrayList<>();
+            executor.getQueue().drainTo(pendingTasks);
+            droppedCount.addAndGet(pendingTasks.size());
+            return pendingTasks.size();
+        }
+
+        private void shutdown() {
+            executor.shutdownNow();
+        }
+
+        private class TimedTask implements Runnable {
+
+            private final Runnable task;
+
+            private final long enqueueTime = System.nanoTime();
+
+            private TimedTask(Runnable task) {
+                this.task = task;
+            }
+
+            @Override
+            public void run() {
+                long waitTime = System.nanoTime() - enqueueTime;
+                totalWaitTime.addAndGet(waitTime);
+                maxWaitTime.accumulateAndGet(waitTime, Math::max);
+                if (lock != null) {
+                    lock.lock();
+                }
+                try {
+                    task.run();
+                }
+                catch (RuntimeException e) {
+                    logger.error("Task in the {} lane failed", name, e);
+                }
+                finally {
+                    if (lock != null) {
+                        lock.unlock();
+                    }
+                    completedCount.incrementAndGet();
+                }
+            }
+        }
+    }
+}
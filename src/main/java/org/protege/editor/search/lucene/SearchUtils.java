@@ -1,8 +1,11 @@
 package org.protege.editor.search.lucene;
 
+import org.protege.editor.owl.model.search.SearchCategory;
 import org.protege.editor.owl.model.search.SearchResult;
 
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -51,4 +54,42 @@ public class SearchUtils {
     public static void union(final Set<SearchResult> set1, final Set<SearchResult> set2) {
         set1.addAll(set2);
     }
-}
\ No newline at end of file
+
+    /**
+     * Performs an intersect operation given the search hits {@code hits1} and {@code hits2},
+     * where the result will be stored in {@code hits1}. The hits are the document ids grouped
+     * by search category and they are intersected per category.
+     *
+     * @param hits1
+     *          The first search hits
+     * @param hits2
+     *          The second search hits
+     */
+    public static void intersect(final Map<SearchCategory, BitSet> hits1, final Map<SearchCategory, BitSet> hits2) {
+        if (isEmpty(hits1) && !isEmpty(hits2)) {
+            for (Map.Entry<SearchCategory, BitSet> entry : hits2.entrySet()) {
+                hits1.put(entry.getKey(), (BitSet) entry.getValue().clone()); // initialize
+            }
+        }
+        else {
+            for (Map.Entry<SearchCategory, BitSet> entry : hits1.entrySet()) {
+                BitSet other = hits2.get(entry.getKey());
+                if (other != null) {
+                    entry.getValue().and(other);
+                }
+                else {
+                    entry.getValue().clear();
+                }
+            }
+        }
+    }
+
+    private static boolean isEmpty(Map<SearchCategory, BitSet> hits) {
+        for (BitSet docIds : hits.values()) {
+            if (!docIds.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
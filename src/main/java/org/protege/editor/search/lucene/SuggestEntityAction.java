@@ -0,0 +1,146 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchManager;
+import org.protege.editor.owl.ui.action.ProtegeOWLAction;
+import org.protege.editor.owl.ui.renderer.OWLCellRenderer;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Goes to an entity by completing the typed prefix of its display name. The completions
+ * come from the autocomplete suggester of the Lucene search manager, and the picked entity
+ * is recorded as used, such that it ranks higher in the later completions.
+ */
+public class SuggestEntityAction extends ProtegeOWLAction {
+
+    private static final int SUGGESTION_LIMIT = 20;
+
+    @Override
+    public void initialise() throws Exception {
+        // NO-OP
+    }
+
+    @Override
+    public void dispose() throws Exception {
+        // NO-OP
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        SearchManager searchManager = getOWLEditorKit().getSearchManager();
+        if (!(searchManager instanceof LuceneSearchManager)) {
+            JOptionPane.showMessageDialog(getWorkspace(), "The Lucene search is not the active search manager.",
+                    "Go to entity", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        showDialog((LuceneSearchManager) searchManager);
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private void showDialog(LuceneSearchManager searchManager) {
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(getWorkspace()), "Go to entity");
+        JTextField txtPrefix = new JTextField(40);
+        DefaultListModel<OWLEntity> suggestions = new DefaultListModel<>();
+        JList<OWLEntity> lstSuggestions = new JList<>(suggestions);
+        lstSuggestions.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lstSuggestions.setCellRenderer(new OWLCellRenderer(getOWLEditorKit()));
+
+        txtPrefix.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateSuggestions(searchManager, txtPrefix.getText(), suggestions, lstSuggestions);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateSuggestions(searchManager, txtPrefix.getText(), suggestions, lstSuggestions);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // NO-OP
+            }
+        });
+        txtPrefix.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int size = suggestions.getSize();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && size > 0) {
+                    lstSuggestions.setSelectedIndex(Math.min(lstSuggestions.getSelectedIndex() + 1, size - 1));
+                }
+                else if (e.getKeyCode() == KeyEvent.VK_UP && size > 0) {
+                    lstSuggestions.setSelectedIndex(Math.max(lstSuggestions.getSelectedIndex() - 1, 0));
+                }
+                else if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    pickEntity(searchManager, lstSuggestions.getSelectedValue(), dialog);
+                }
+                else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    dialog.dispose();
+                }
+            }
+        });
+        lstSuggestions.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    pickEntity(searchManager, lstSuggestions.getSelectedValue(), dialog);
+                }
+            }
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(0, 4));
+        panel.add(txtPrefix, BorderLayout.NORTH);
+        JScrollPane scpSuggestions = new JScrollPane(lstSuggestions);
+        scpSuggestions.setPreferredSize(new Dimension(500, 300));
+        panel.add(scpSuggestions, BorderLayout.CENTER);
+        dialog.setContentPane(panel);
+        dialog.pack();
+        dialog.setLocationRelativeTo(getWorkspace());
+        dialog.setVisible(true);
+    }
+
+    private static void updateSuggestions(LuceneSearchManager searchManager, String prefix,
+            DefaultListModel<OWLEntity> suggestions, JList<OWLEntity> lstSuggestions) {
+        suggestions.clear();
+        if (prefix.trim().isEmpty()) {
+            return;
+        }
+        for (OWLEntity entity : searchManager.getSuggestions(prefix.trim(), SUGGESTION_LIMIT)) {
+            suggestions.addElement(entity);
+        }
+        if (!suggestions.isEmpty()) {
+            lstSuggestions.setSelectedIndex(0);
+        }
+    }
+
+    private void pickEntity(LuceneSearchManager searchManager, OWLEntity entity, JDialog dialog) {
+        if (entity == null) {
+            return;
+        }
+        searchManager.recordSuggestionUsage(entity);
+        getOWLWorkspace().getOWLSelectionModel().setSelectedEntity(entity);
+        dialog.dispose();
+    }
+}
@@ -0,0 +1,37 @@
+package org.protege.editor.search.lucene;
+
+/**
+ * The order of the autocomplete suggestions that share a typed prefix.
+ */
+public enum SuggestionRanking {
+
+    /**
+     * The entities most often picked from the suggestions first
+     */
+    USAGE("Most often picked"),
+
+    /**
+     * The entities with the most annotations and axioms in the index first
+     */
+    REFERENCES("Most annotations and axioms"),
+
+    /**
+     * The display names in alphabetical order
+     */
+    ALPHABETICAL("Alphabetical");
+
+    private final String label;
+
+    SuggestionRanking(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
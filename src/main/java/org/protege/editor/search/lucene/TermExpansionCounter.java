@@ -0,0 +1,80 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.AutomatonQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+
+import java.io.IOException;
+
+/**
+ * Counts the index terms that a query expands to, for the search profile. A term or
+ * phrase query counts its own terms, while a prefix, wildcard or regular expression query
+ * counts the terms its automaton accepts in every segment, which is the work Lucene does
+ * before it reads any postings. Other multi-term queries are not produced by the
+ * {@link QueryCompiler} and count no terms.
+ */
+final class TermExpansionCounter {
+
+    private TermExpansionCounter() {
+        // NO-OP
+    }
+
+    /**
+     * Counts the terms of the given query, before the query is rewritten.
+     */
+    static int count(IndexReader reader, Query query) throws IOException {
+        if (query instanceof BooleanQuery) {
+            int count = 0;
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                count += count(reader, clause.getQuery());
+            }
+            return count;
+        }
+        else if (query instanceof ConstantScoreQuery) {
+            return count(reader, ((ConstantScoreQuery) query).getQuery());
+        }
+        else if (query instanceof TermQuery) {
+            return 1;
+        }
+        else if (query instanceof PhraseQuery) {
+            return ((PhraseQuery) query).getTerms().length;
+        }
+        else if (query instanceof AutomatonQuery) {
+            return countTerms(reader, (AutomatonQuery) query);
+        }
+        return 0; // e.g., the hit set filters, which match documents without terms
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private static int countTerms(IndexReader reader, AutomatonQuery query) throws IOException {
+        boolean isBinary = query instanceof PrefixQuery; // the prefix automaton accepts bytes, not code points
+        CompiledAutomaton automaton = new CompiledAutomaton(query.getAutomaton(), null, true,
+                Operations.DEFAULT_MAX_DETERMINIZED_STATES, isBinary);
+        int count = 0;
+        for (LeafReaderContext context : reader.leaves()) {
+            Terms terms = context.reader().terms(query.getField());
+            if (terms == null) {
+                continue;
+            }
+            TermsEnum termsEnum = automaton.getTermsEnum(terms);
+            while (termsEnum.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,8 +1,14 @@
 package org.protege.editor.search.lucene;
 
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 /**
  * @author Josef Hardi <johardi@stanford.edu><br>
  * Stanford University<br>
@@ -25,6 +31,22 @@ public class UnionQuery implements SearchQuery {
         return queries.size();
     }
 
+    @Override
+    public UnionQuery filter(Query filter) {
+        Builder builder = new Builder();
+        for (SearchQuery query : queries) {
+            builder.add(query.filter(filter));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void collectQueries(Collection<Query> luceneQueries) {
+        for (SearchQuery query : queries) {
+            query.collectQueries(luceneQueries);
+        }
+    }
+
     @Override
     public void evaluate(AbstractDocumentHandler handler) throws QueryEvaluationException {
         for (SearchQuery query : queries) {
@@ -39,6 +61,17 @@ public class UnionQuery implements SearchQuery {
         }
     }
 
+    @Override
+    public void evaluate(IndexSearcher indexSearcher, AbstractDocumentHandler handler, SearchProgressListener listener,
+            SearchBudget budget, @Nullable QueryProfile profile) throws QueryEvaluationException {
+        for (SearchQuery query : queries) {
+            if (budget.isSuperseded()) {
+                break;
+            }
+            query.evaluate(indexSearcher, handler, listener, budget, profile);
+        }
+    }
+
     public static class Builder {
 
         private final Set<SearchQuery> queries = new HashSet<>();
@@ -0,0 +1,26 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Splits the text into words like the standard analyzer but keeps the letter case of the
+ * words, such that a case-sensitive search can be answered from the index.
+ */
+public class CasePreservingAnalyzer extends Analyzer {
+
+    public static final int DEFAULT_MAX_TOKEN_LENGTH = 255;
+
+    private int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final StandardTokenizer src = new StandardTokenizer();
+        src.setMaxTokenLength(maxTokenLength);
+
+        TokenStream tok = new StandardFilter(src); // no lowercasing
+        return new TokenStreamComponents(src, tok);
+    }
+}
@@ -0,0 +1,49 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Produces the leading n-grams of each word, e.g., "heart" becomes "hea", "hear" and
+ * "heart". A prefix of a word can then be found by a single term lookup instead of a
+ * prefix query that enumerates the term dictionary. The shortest n-gram has as many
+ * characters as the shortest prefix that the search string parser turns into a prefix
+ * query. The words are split into their parts like in {@link LabelAnalyzer}, hence a prefix
+ * of a part, e.g., "partic" of "hasParticipant", is found as well. The n-grams keep the
+ * offsets of the original word.
+ */
+public class EdgeNGramAnalyzer extends Analyzer {
+
+    public static final int DEFAULT_MAX_TOKEN_LENGTH = 255;
+    public static final int DEFAULT_MIN_GRAM_SIZE = 3;
+    public static final int DEFAULT_MAX_GRAM_SIZE = 10;
+
+    private int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
+    private int minGramSize = DEFAULT_MIN_GRAM_SIZE;
+    private int maxGramSize = DEFAULT_MAX_GRAM_SIZE;
+
+    public int getMinGramSize() {
+        return minGramSize;
+    }
+
+    public int getMaxGramSize() {
+        return maxGramSize;
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final StandardTokenizer src = new StandardTokenizer();
+        src.setMaxTokenLength(maxTokenLength);
+
+        TokenStream tok = new StandardFilter(src);
+        tok = new WordDelimiterFilter(tok, LabelAnalyzer.WORD_DELIMITER_FLAGS, null); // split before lowercasing
+        tok = new LowerCaseFilter(tok); // lowercased only
+        tok = new EdgeNGramTokenFilter(tok, minGramSize, maxGramSize); // create word prefixes
+        return new TokenStreamComponents(src, tok);
+    }
+}
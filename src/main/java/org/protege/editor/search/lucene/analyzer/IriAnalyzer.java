@@ -0,0 +1,20 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+
+/**
+ * Produces the lowercased namespace, local name and local name words of an IRI (see
+ * {@link IriTokenizer}), such that a local name or one of its words can be found by a
+ * single term lookup.
+ */
+public class IriAnalyzer extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final IriTokenizer src = new IriTokenizer();
+        TokenStream tok = new LowerCaseFilter(src); // lowercased only
+        return new TokenStreamComponents(src, tok);
+    }
+}
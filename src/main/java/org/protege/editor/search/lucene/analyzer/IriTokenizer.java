@@ -0,0 +1,150 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an IRI into its namespace, its local name and the words of the local name. The
+ * namespace ends with the last hash or slash of the IRI, and the words of the local name
+ * are separated by underscores, hyphens, dots, camel case and letter-digit boundaries. For
+ * example, "http://purl.obolibrary.org/obo/GO_0008150" produces the tokens
+ * "http://purl.obolibrary.org/obo/", "GO_0008150", "GO" and "0008150". The local name
+ * words are only produced when there are at least two of them. A text without a hash or
+ * a slash is taken as a local name.
+ */
+public final class IriTokenizer extends Tokenizer {
+
+    private static final int MAX_IRI_LENGTH = 4096;
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+    private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+
+    private final List<int[]> spans = new ArrayList<>();
+
+    private String text;
+
+    private int spanIndex = 0;
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (text == null) {
+            text = readInput();
+            splitIri(text, spans);
+        }
+        if (spanIndex >= spans.size()) {
+            return false;
+        }
+        clearAttributes();
+        int[] span = spans.get(spanIndex++);
+        termAtt.append(text, span[0], span[1]);
+        offsetAtt.setOffset(correctOffset(span[0]), correctOffset(span[1]));
+        posIncAtt.setPositionIncrement(1);
+        return true;
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        int finalOffset = correctOffset((text == null) ? 0 : text.length());
+        offsetAtt.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        text = null;
+        spans.clear();
+        spanIndex = 0;
+    }
+
+    /*
+     * Private utility methods
+     */
+
+    private String readInput() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[256];
+        int length;
+        while ((length = input.read(buffer)) != -1 && sb.length() < MAX_IRI_LENGTH) {
+            sb.append(buffer, 0, length);
+        }
+        return (sb.length() > MAX_IRI_LENGTH) ? sb.substring(0, MAX_IRI_LENGTH) : sb.toString();
+    }
+
+    private static void splitIri(String iri, List<int[]> spans) {
+        int start = 0;
+        int end = iri.length();
+        while (start < end && (Character.isWhitespace(iri.charAt(start)) || iri.charAt(start) == '<')) {
+            start++;
+        }
+        while (end > start && (Character.isWhitespace(iri.charAt(end - 1)) || iri.charAt(end - 1) == '>')) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        int separator = Math.max(iri.lastIndexOf('#', end - 1), iri.lastIndexOf('/', end - 1));
+        int localStart = start;
+        if (separator >= start) {
+            spans.add(new int[] { start, separator + 1 }); // the namespace
+            localStart = separator + 1;
+        }
+        if (localStart < end) {
+            spans.add(new int[] { localStart, end }); // the local name
+            List<int[]> words = new ArrayList<>();
+            splitLocalName(iri, localStart, end, words);
+            if (words.size() > 1) {
+                spans.addAll(words);
+            }
+        }
+    }
+
+    private static void splitLocalName(String text, int start, int end, List<int[]> words) {
+        int wordStart = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                if (wordStart >= 0) {
+                    words.add(new int[] { wordStart, i });
+                    wordStart = -1;
+                }
+                continue;
+            }
+            if (wordStart >= 0 && isWordBoundary(text, i, end)) {
+                words.add(new int[] { wordStart, i });
+                wordStart = i;
+            }
+            if (wordStart < 0) {
+                wordStart = i;
+            }
+        }
+        if (wordStart >= 0) {
+            words.add(new int[] { wordStart, end });
+        }
+    }
+
+    /*
+     * Checks if a new word starts at the given index, i.e., between a lowercase letter and an
+     * uppercase letter ("partOf"), between a letter and a digit ("GO0008150"), or before the
+     * last uppercase letter of an acronym that is followed by a lowercase letter ("HTTPServer").
+     */
+    private static boolean isWordBoundary(String text, int i, int end) {
+        char previous = text.charAt(i - 1);
+        char current = text.charAt(i);
+        if (Character.isDigit(previous) != Character.isDigit(current)) {
+            return true;
+        }
+        if (Character.isLowerCase(previous) && Character.isUpperCase(current)) {
+            return true;
+        }
+        return Character.isUpperCase(previous) && Character.isUpperCase(current)
+                && i + 1 < end && Character.isLowerCase(text.charAt(i + 1));
+    }
+}
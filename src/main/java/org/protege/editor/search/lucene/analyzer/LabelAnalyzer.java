@@ -0,0 +1,75 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterFilter;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.util.CharArraySet;
+
+/**
+ * Analyzes the labels and annotation values like the standard analyzer, but also splits
+ * the identifier-like words into their parts. A word is split on case changes, underscores,
+ * hyphens and letter-digit boundaries, and the original word is kept at the position of its
+ * first part. For example, "hasParticipantInProcess" produces the tokens
+ * "hasparticipantinprocess", "has", "participant", "process" (the stop word "in" is
+ * removed), such that a part of an identifier is found by a term lookup instead of a
+ * wildcard scan. The parts share the position of the original word (see
+ * {@link WordPartPositionFilter}), hence a phrase of whole identifiers still matches.
+ * <p>
+ * The search strings are analyzed without splitting (see {@link #createQueryAnalyzer()}),
+ * hence a whole identifier in a search string only matches the original word.
+ */
+public class LabelAnalyzer extends Analyzer {
+
+    public static final int DEFAULT_MAX_TOKEN_LENGTH = 255;
+
+    public static final int WORD_DELIMITER_FLAGS = WordDelimiterFilter.GENERATE_WORD_PARTS
+            | WordDelimiterFilter.GENERATE_NUMBER_PARTS
+            | WordDelimiterFilter.SPLIT_ON_CASE_CHANGE
+            | WordDelimiterFilter.SPLIT_ON_NUMERICS
+            | WordDelimiterFilter.STEM_ENGLISH_POSSESSIVE
+            | WordDelimiterFilter.PRESERVE_ORIGINAL;
+
+    private int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
+
+    private CharArraySet stopWordsSet = StandardAnalyzer.STOP_WORDS_SET;
+
+    private final boolean splitWords;
+
+    public LabelAnalyzer() {
+        this(true);
+    }
+
+    private LabelAnalyzer(boolean splitWords) {
+        this.splitWords = splitWords;
+    }
+
+    /**
+     * Creates an analyzer that keeps the words whole, for analyzing the search string. It
+     * produces the same tokens as the standard analyzer.
+     */
+    public static LabelAnalyzer createQueryAnalyzer() {
+        return new LabelAnalyzer(false);
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final StandardTokenizer src = new StandardTokenizer();
+        src.setMaxTokenLength(maxTokenLength);
+
+        TokenStream tok = new StandardFilter(src);
+        if (splitWords) {
+            tok = new WordDelimiterFilter(tok, WORD_DELIMITER_FLAGS, null); // split before lowercasing
+            // Stack the parts before the stop words are removed, which would otherwise move
+            // the positions of a removed part to the next word
+            tok = new WordPartPositionFilter(tok);
+        }
+        tok = new LowerCaseFilter(tok); // lowercased only
+        tok = new StopFilter(tok, stopWordsSet); // remove stopwords
+        return new TokenStreamComponents(src, tok);
+    }
+}
@@ -7,7 +7,7 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.StopAnalyzer;
 import org.apache.lucene.analysis.core.StopFilter;
-import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
 import org.apache.lucene.analysis.phonetic.PhoneticFilter;
 import org.apache.lucene.analysis.standard.StandardFilter;
 import org.apache.lucene.analysis.standard.StandardTokenizer;
@@ -22,8 +22,8 @@ import org.apache.lucene.analysis.util.CharArraySet;
 public class PhoneticAnalyzer extends Analyzer {
 
     public static final int DEFAULT_MAX_TOKEN_LENGTH = 255;
-    public static final int DEFAULT_MIN_GRAM_SIZE = 7 ;
-    public static final int DEFAULT_MAX_GRAM_SIZE = Integer.MAX_VALUE;
+    public static final int DEFAULT_MIN_GRAM_SIZE = 2;
+    public static final int DEFAULT_MAX_GRAM_SIZE = 8;
     
     public static final Encoder DEFAULT_PHONETIC_ENCODER = new RefinedSoundex();
 
@@ -35,6 +35,25 @@ public class PhoneticAnalyzer extends Analyzer {
 
     private CharArraySet stopWordsSet = StopAnalyzer.ENGLISH_STOP_WORDS_SET;
 
+    private final boolean useGrams;
+
+    public PhoneticAnalyzer() {
+        this(true);
+    }
+
+    private PhoneticAnalyzer(boolean useGrams) {
+        this.useGrams = useGrams;
+    }
+
+    /**
+     * Creates an analyzer that produces the whole phonetic code of each word, for
+     * analyzing the search string. A code can be looked up in the index by its leading
+     * n-gram of at most {@link #DEFAULT_MAX_GRAM_SIZE} characters.
+     */
+    public static PhoneticAnalyzer createQueryAnalyzer() {
+        return new PhoneticAnalyzer(false);
+    }
+
     public void setEncoder(Encoder encoder) {
         this.encoder = encoder;
     }
@@ -47,8 +66,10 @@ public class PhoneticAnalyzer extends Analyzer {
         TokenStream tok = new StandardFilter(src);
         tok = new LowerCaseFilter(tok); // lowercased only
         tok = new StopFilter(tok, stopWordsSet); // remove stopwords
-        tok = new PhoneticFilter(tok, encoder, true); // store phonetic code
-        tok = new NGramTokenFilter(tok, minGramSize, maxGramSize); // create word n-grams
+        tok = new PhoneticFilter(tok, encoder, false); // replace the words by their phonetic code
+        if (useGrams) {
+            tok = new EdgeNGramTokenFilter(tok, minGramSize, maxGramSize); // create bounded code prefixes
+        }
         return new TokenStreamComponents(src, tok);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.reverse.ReverseStringFilter;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Produces the words in reverse, e.g., "cardiac" becomes "caidrac". A suffix search
+ * then becomes a prefix search over the reversed words, which only visits the terms
+ * that share the reversed suffix instead of the whole term dictionary.
+ */
+public class ReversedTokenAnalyzer extends Analyzer {
+
+    public static final int DEFAULT_MAX_TOKEN_LENGTH = 255;
+
+    private int maxTokenLength = DEFAULT_MAX_TOKEN_LENGTH;
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final StandardTokenizer src = new StandardTokenizer();
+        src.setMaxTokenLength(maxTokenLength);
+
+        TokenStream tok = new StandardFilter(src);
+        tok = new LowerCaseFilter(tok); // lowercased only
+        tok = new ReverseStringFilter(tok); // reverse the words
+        return new TokenStreamComponents(src, tok);
+    }
+}
@@ -0,0 +1,23 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+
+/**
+ * Produces the character trigrams of the whole text, e.g., "heart" becomes "hea", "ear"
+ * and "art", each one position after the other. A substring of three or more characters
+ * can then be found by a phrase query over its trigrams.
+ */
+public class TrigramAnalyzer extends Analyzer {
+
+    public static final int GRAM_SIZE = 3;
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        final NGramTokenizer src = new NGramTokenizer(GRAM_SIZE, GRAM_SIZE);
+        TokenStream tok = new LowerCaseFilter(src); // lowercased only
+        return new TokenStreamComponents(src, tok);
+    }
+}
@@ -0,0 +1,51 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+
+import java.io.IOException;
+
+/**
+ * Stacks the parts of a split word at the position of the original word. The word
+ * delimiter filter gives each part of a word its own position, e.g., "part_of cell"
+ * produces "part_of" and "part" at position 0, "of" at position 1 and "cell" at position
+ * 2. A search string is not split, hence the phrase "part_of cell" would not match. After
+ * this filter, every token whose offsets lie within the preceding word is put at the
+ * position of that word, so "cell" follows "part_of" at position 1.
+ * <p>
+ * The filter expects the original word before its parts, as the word delimiter filter
+ * produces them with the <code>PRESERVE_ORIGINAL</code> flag.
+ */
+public final class WordPartPositionFilter extends TokenFilter {
+
+    private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+
+    private int wordEndOffset = -1;
+
+    public WordPartPositionFilter(TokenStream input) {
+        super(input);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (!input.incrementToken()) {
+            return false;
+        }
+        if (offsetAtt.startOffset() < wordEndOffset) {
+            posIncAtt.setPositionIncrement(0); // a part of the preceding word
+        }
+        else {
+            wordEndOffset = offsetAtt.endOffset();
+        }
+        return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        wordEndOffset = -1;
+    }
+}
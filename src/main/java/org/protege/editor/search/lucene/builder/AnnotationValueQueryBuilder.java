@@ -3,10 +3,11 @@ package org.protege.editor.search.lucene.builder;
 import org.protege.editor.owl.model.search.SearchCategory;
 import org.protege.editor.owl.model.search.SearchTerm;
 import org.protege.editor.search.lucene.BasicSearchQuery;
+import org.protege.editor.search.lucene.DocKind;
 import org.protege.editor.search.lucene.IndexField;
 import org.protege.editor.search.lucene.LuceneSearcher;
-import org.protege.editor.search.lucene.LuceneUtils;
 import org.protege.editor.search.lucene.SearchQuery;
+import org.protege.editor.search.lucene.SearchFilters;
 import org.protege.editor.search.lucene.SearchQueryBuilder;
 
 import org.apache.lucene.search.Query;
@@ -35,13 +36,19 @@ public class AnnotationValueQueryBuilder extends SearchQueryBuilder {
     public SearchQuery buildSearchQueryFor(SearchTerm term) {
         final Query query;
         if (term.searchByRegex()) {
-            query = LuceneUtils.createRegexQuery(IndexField.ANNOTATION_TEXT, term.getString());
+            query = searcher.getQueryCompiler().compileRegex(IndexField.ANNOTATION_TEXT, term.getString());
+        }
+        else if (term.ignoreWhitespace()) {
+            query = searcher.getQueryCompiler().compileIgnoringWhitespace(IndexField.ANNOTATION_TEXT, term.getString(),
+                    term.searchWholeWords())
+                    .orElseGet(() -> searcher.getQueryCompiler().compile(IndexField.ANNOTATION_TEXT, term.getSyntacticString(),
+                            term.isCaseSensitive()));
         }
         else {
             String keywordString = term.getSyntacticString();
-            query = LuceneUtils.createQuery(IndexField.ANNOTATION_TEXT, keywordString, searcher.getTextAnalyzer());
+            query = searcher.getQueryCompiler().compile(IndexField.ANNOTATION_TEXT, keywordString, term.isCaseSensitive());
         }
-        return new BasicSearchQuery(query, SearchCategory.ANNOTATION_VALUE, searcher);
+        return new BasicSearchQuery(query, SearchCategory.ANNOTATION_VALUE, searcher).filter(SearchFilters.docKind(DocKind.ANNOTATION));
     }
 
     @Override
@@ -3,10 +3,11 @@ package org.protege.editor.search.lucene.builder;
 import org.protege.editor.owl.model.search.SearchCategory;
 import org.protege.editor.owl.model.search.SearchTerm;
 import org.protege.editor.search.lucene.BasicSearchQuery;
+import org.protege.editor.search.lucene.DocKind;
 import org.protege.editor.search.lucene.IndexField;
 import org.protege.editor.search.lucene.LuceneSearcher;
-import org.protege.editor.search.lucene.LuceneUtils;
 import org.protege.editor.search.lucene.SearchQuery;
+import org.protege.editor.search.lucene.SearchFilters;
 import org.protege.editor.search.lucene.SearchQueryBuilder;
 
 import org.apache.lucene.search.Query;
@@ -35,13 +36,19 @@ public class DisplayNameQueryBuilder extends SearchQueryBuilder {
     public SearchQuery buildSearchQueryFor(SearchTerm term) {
         final Query query;
         if (term.searchByRegex()) {
-            query = LuceneUtils.createRegexQuery(IndexField.DISPLAY_NAME, term.getString());
+            query = searcher.getQueryCompiler().compileRegex(IndexField.DISPLAY_NAME, term.getString());
+        }
+        else if (term.ignoreWhitespace()) {
+            query = searcher.getQueryCompiler().compileIgnoringWhitespace(IndexField.DISPLAY_NAME, term.getString(),
+                    term.searchWholeWords())
+                    .orElseGet(() -> searcher.getQueryCompiler().compile(IndexField.DISPLAY_NAME, term.getSyntacticString(),
+                            term.isCaseSensitive()));
         }
         else {
             String keywordString = term.getSyntacticString();
-            query = LuceneUtils.createQuery(IndexField.DISPLAY_NAME, keywordString, searcher.getTextAnalyzer());
+            query = searcher.getQueryCompiler().compile(IndexField.DISPLAY_NAME, keywordString, term.isCaseSensitive());
         }
-        return new BasicSearchQuery(query, SearchCategory.DISPLAY_NAME, searcher);
+        return new BasicSearchQuery(query, SearchCategory.DISPLAY_NAME, searcher).filter(SearchFilters.docKind(DocKind.ENTITY));
     }
 
     @Override
@@ -3,10 +3,11 @@ package org.protege.editor.search.lucene.builder;
 import org.protege.editor.owl.model.search.SearchCategory;
 import org.protege.editor.owl.model.search.SearchTerm;
 import org.protege.editor.search.lucene.BasicSearchQuery;
+import org.protege.editor.search.lucene.DocKind;
 import org.protege.editor.search.lucene.IndexField;
 import org.protege.editor.search.lucene.LuceneSearcher;
-import org.protege.editor.search.lucene.LuceneUtils;
 import org.protege.editor.search.lucene.SearchQuery;
+import org.protege.editor.search.lucene.SearchFilters;
 import org.protege.editor.search.lucene.SearchQueryBuilder;
 
 import org.apache.lucene.search.Query;
@@ -35,13 +36,14 @@ public class EntityIriQueryBuilder extends SearchQueryBuilder {
     public SearchQuery buildSearchQueryFor(SearchTerm term) {
         final Query query;
         if (term.searchByRegex()) {
-            query = LuceneUtils.createRegexQuery(IndexField.ENTITY_IRI, term.getString());
+            query = searcher.getQueryCompiler().compileRegex(IndexField.ENTITY_IRI, term.getString());
         }
         else {
             String keywordString = term.getSyntacticString();
-            query = LuceneUtils.createQuery(IndexField.ENTITY_IRI, keywordString, searcher.getTextAnalyzer());
+            query = searcher.getQueryCompiler().compileIri(IndexField.ENTITY_IRI, term.getString())
+                    .orElseGet(() -> searcher.getQueryCompiler().compile(IndexField.ENTITY_IRI, keywordString));
         }
-        return new BasicSearchQuery(query, SearchCategory.IRI, searcher);
+        return new BasicSearchQuery(query, SearchCategory.IRI, searcher).filter(SearchFilters.docKind(DocKind.ENTITY));
     }
 
     @Override
@@ -3,14 +3,14 @@ package org.protege.editor.search.lucene.builder;
 import org.protege.editor.owl.model.search.SearchCategory;
 import org.protege.editor.owl.model.search.SearchTerm;
 import org.protege.editor.search.lucene.BasicSearchQuery;
+import org.protege.editor.search.lucene.DocKind;
 import org.protege.editor.search.lucene.IndexField;
 import org.protege.editor.search.lucene.LuceneSearcher;
-import org.protege.editor.search.lucene.LuceneUtils;
 import org.protege.editor.search.lucene.SearchQuery;
+import org.protege.editor.search.lucene.SearchFilters;
 import org.protege.editor.search.lucene.SearchQueryBuilder;
 
-import org.apache.lucene.search.BooleanClause.Occur;
-import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,10 +34,10 @@ public class FilteredAnnotationQueryBuilder extends SearchQueryBuilder {
 
     @Override
     public SearchQuery buildSearchQueryFor(SearchTerm term) {
-        BooleanQuery.Builder builder = new BooleanQuery.Builder();
-        builder.add(LuceneUtils.createTermQuery(IndexField.ANNOTATION_DISPLAY_NAME, term.getField()), Occur.MUST);
-        builder.add(LuceneUtils.createQuery(IndexField.ANNOTATION_TEXT, term.getString(), searcher.getTextAnalyzer()), Occur.MUST);
-        return new BasicSearchQuery(builder.build(), SearchCategory.ANNOTATION_VALUE, searcher);
+        Query query = searcher.getQueryCompiler().compile(IndexField.ANNOTATION_TEXT, term.getString());
+        return new BasicSearchQuery(query, SearchCategory.ANNOTATION_VALUE, searcher)
+                .filter(SearchFilters.docKind(DocKind.ANNOTATION))
+                .filter(SearchFilters.annotationProperty(term.getField()));
     }
 
     @Override
@@ -0,0 +1,46 @@
+package org.protege.editor.search.lucene.builder;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchTerm;
+import org.protege.editor.search.lucene.BasicSearchQuery;
+import org.protege.editor.search.lucene.DocKind;
+import org.protege.editor.search.lucene.IndexField;
+import org.protege.editor.search.lucene.LuceneSearcher;
+import org.protege.editor.search.lucene.SearchQuery;
+import org.protege.editor.search.lucene.SearchFilters;
+import org.protege.editor.search.lucene.SearchQueryBuilder;
+
+import org.apache.lucene.search.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * Builds the query that finds the display names that sound like the search string. The
+ * phonetic hits are added to the display name hits of the other query builders.
+ */
+public class PhoneticQueryBuilder extends SearchQueryBuilder {
+
+    protected static final Logger logger = LoggerFactory.getLogger(PhoneticQueryBuilder.class);
+
+    private LuceneSearcher searcher;
+
+    public PhoneticQueryBuilder(LuceneSearcher searcher) {
+        this.searcher = searcher;
+    }
+
+    @Override
+    public SearchQuery buildSearchQueryFor(SearchTerm term) {
+        Query query = searcher.getQueryCompiler().compilePhonetic(IndexField.PHONETIC_NAME, term.getString());
+        return new BasicSearchQuery(query, SearchCategory.DISPLAY_NAME, searcher).filter(SearchFilters.docKind(DocKind.ENTITY));
+    }
+
+    @Override
+    public boolean isBuilderFor(SearchTerm term, Collection<SearchCategory> categories) {
+        if (categories.contains(SearchCategory.DISPLAY_NAME) && term.searchByPhonetic() && !term.searchByRegex()) {
+            return (term.hasField()) ? false : true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AutocompleteSuggesterTest {
+
+    private static final String HEART = "http://example.org/heart";
+    private static final String HEART_VALVE = "http://example.org/heart_valve";
+    private static final String HEARING = "http://example.org/hearing";
+    private static final String LIVER = "http://example.org/liver";
+
+    private static final long READER_VERSION = 7;
+
+    private RAMDirectory directory;
+
+    private DirectoryReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            addDocuments(writer, "heart", HEART, 1);
+            addDocuments(writer, "heart valve", HEART_VALVE, 3); // the entity and two annotations
+            addDocuments(writer, "hearing", HEARING, 2);
+            addDocuments(writer, "liver", LIVER, 1);
+        }
+        reader = DirectoryReader.open(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void shouldSuggestAlphabeticallyWithoutUsage() throws Exception {
+        AutocompleteSuggester suggester = new AutocompleteSuggester();
+        assertTrue(suggester.build(reader, READER_VERSION));
+        assertEquals(3, suggester.lookup("hear", 10).size());
+        List<String> iris = lookupIris(suggester, "HEAR", 10);
+        assertEquals(HEARING, iris.get(0));
+        assertEquals(HEART, iris.get(1));
+        assertEquals(HEART_VALVE, iris.get(2));
+        assertTrue(suggester.lookup("kidney", 10).isEmpty());
+    }
+
+    @Test
+    public void shouldRankByUsageAfterRebuild() throws Exception {
+        AutocompleteSuggester suggester = new AutocompleteSuggester();
+        suggester.build(reader, READER_VERSION);
+        suggester.recordUsage(HEART_VALVE);
+        suggester.recordUsage(HEART_VALVE);
+        suggester.recordUsage(HEART);
+        assertFalse(suggester.isCurrent(READER_VERSION));
+        assertEquals(HEARING, lookupIris(suggester, "hear", 1).get(0)); // the previous weights until rebuilt
+        suggester.clear(); // skips the minimum rebuild interval
+        assertTrue(suggester.build(reader, READER_VERSION));
+        List<String> iris = lookupIris(suggester, "hear", 10);
+        assertEquals(HEART_VALVE, iris.get(0));
+        assertEquals(HEART, iris.get(1));
+        assertEquals(HEARING, iris.get(2));
+        assertEquals(2, suggester.lookup("hear", 1).get(0).getWeight());
+    }
+
+    @Test
+    public void shouldRankByDocumentCount() throws Exception {
+        AutocompleteSuggester suggester = new AutocompleteSuggester((entityIri, documentCount) -> documentCount);
+        suggester.build(reader, READER_VERSION);
+        List<String> iris = lookupIris(suggester, "hear", 2);
+        assertEquals(2, iris.size());
+        assertEquals(HEART_VALVE, iris.get(0));
+        assertEquals(HEARING, iris.get(1));
+    }
+
+    @Test
+    public void shouldSkipRebuildWithinMinimumInterval() throws Exception {
+        AutocompleteSuggester suggester = new AutocompleteSuggester();
+        assertFalse(suggester.isBuilt());
+        assertTrue(suggester.isRebuildDue(READER_VERSION));
+        assertTrue(suggester.build(reader, READER_VERSION));
+        assertTrue(suggester.isCurrent(READER_VERSION));
+        assertFalse(suggester.build(reader, READER_VERSION)); // current
+        assertFalse(suggester.isRebuildDue(READER_VERSION + 1)); // stale, but built just now
+        assertFalse(suggester.build(reader, READER_VERSION + 1));
+        suggester.invalidate();
+        assertFalse(suggester.isCurrent(READER_VERSION));
+    }
+
+    private static List<String> lookupIris(AutocompleteSuggester suggester, String prefix, int limit) {
+        List<String> iris = new ArrayList<>();
+        for (AutocompleteSuggester.Suggestion suggestion : suggester.lookup(prefix, limit)) {
+            iris.add(suggestion.getEntityIri());
+        }
+        return iris;
+    }
+
+    private static void addDocuments(IndexWriter writer, String name, String iri, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Document doc = new Document();
+            doc.add(new SortedDocValuesField(IndexField.DISPLAY_NAME_SORT, new BytesRef(name)));
+            doc.add(new SortedDocValuesField(IndexField.ENTITY_IRI, new BytesRef(iri)));
+            writer.addDocument(doc);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IndexDelegatorPoolTest {
+
+    private static final long NO_MEMORY_LIMIT = Long.MAX_VALUE;
+
+    private static final int NO_FILE_LIMIT = Integer.MAX_VALUE;
+
+    private IndexDelegatorPool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.clear();
+        }
+    }
+
+    @Test
+    public void shouldReuseReleasedIndex() throws Exception {
+        pool = new IndexDelegatorPool(() -> NO_MEMORY_LIMIT, () -> NO_FILE_LIMIT);
+        IndexDelegator heart = openIndex("heart");
+        pool.release("heart", heart);
+        assertEquals(1, pool.size());
+        assertSame(heart, pool.take("heart").get());
+        assertEquals(0, pool.size());
+        assertFalse(pool.take("heart").isPresent());
+        heart.dispose();
+    }
+
+    @Test
+    public void shouldDisposeRightAwayWithZeroBudget() throws Exception {
+        pool = new IndexDelegatorPool(() -> 0, () -> NO_FILE_LIMIT);
+        IndexDelegator heart = openIndex("heart");
+        pool.release("heart", heart);
+        assertEquals(0, pool.size());
+        assertDisposed(heart);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedIndexOverFileBudget() throws Exception {
+        IndexDelegator heart = openIndex("heart");
+        IndexDelegator liver = openIndex("liver");
+        IndexDelegator lung = openIndex("lung");
+        int fileBudget = heart.getOpenFileCount() + liver.getOpenFileCount(); // room for two indexes
+        pool = new IndexDelegatorPool(() -> NO_MEMORY_LIMIT, () -> fileBudget);
+        pool.release("heart", heart);
+        pool.release("liver", liver);
+        pool.release("lung", lung);
+        assertEquals(2, pool.size());
+        assertDisposed(heart);
+        assertTrue(pool.take("liver").isPresent());
+        assertTrue(pool.take("lung").isPresent());
+        liver.dispose();
+        lung.dispose();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedIndexOverMemoryBudget() throws Exception {
+        IndexDelegator heart = openIndex("heart");
+        IndexDelegator liver = openIndex("liver");
+        long memoryBudget = heart.ramBytesUsed() + liver.ramBytesUsed() - 1; // room for one index
+        pool = new IndexDelegatorPool(() -> memoryBudget, () -> NO_FILE_LIMIT);
+        pool.release("heart", heart);
+        pool.release("liver", liver);
+        assertEquals(1, pool.size());
+        assertDisposed(heart);
+        assertTrue(pool.take("liver").isPresent());
+        liver.dispose();
+    }
+
+    /*
+     * Opens an in-memory index with one document and its reader, with the writer closed
+     * like the pool does
+     */
+    private static IndexDelegator openIndex(String text) throws IOException {
+        IndexDelegator delegator = IndexDelegator.getInstance(new RAMDirectory(),
+                () -> new IndexWriterConfig(new StandardAnalyzer()));
+        IndexWriter writer = delegator.getWriter();
+        Document doc = new Document();
+        doc.add(new TextField(IndexField.DISPLAY_NAME, text, Store.YES));
+        writer.addDocument(doc);
+        writer.commit();
+        delegator.closeWriter();
+        delegator.getSearcher();
+        return delegator;
+    }
+
+    private static void assertDisposed(IndexDelegator delegator) throws IOException {
+        try {
+            delegator.getDirectory().listAll();
+            fail("The index should be disposed");
+        }
+        catch (AlreadyClosedException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.protege.editor.search.lucene;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class IndexDelegatorTest {
+
+    private IndexDelegator delegator;
+
+    @Before
+    public void setUp() throws IOException {
+        delegator = IndexDelegator.getInstance(new RAMDirectory(), () -> new IndexWriterConfig(new StandardAnalyzer()));
+        addDocument("heart");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        delegator.dispose();
+    }
+
+    @Test
+    public void shouldCloseReplacedReader() throws Exception {
+        IndexReader reader = delegator.getSearcher().getIndexReader();
+        addDocument("liver");
+        IndexSearcher searcher = delegator.refreshSearcher();
+        assertNotSame(reader, searcher.getIndexReader());
+        assertEquals(0, reader.getRefCount());
+        assertEquals(2, searcher.getIndexReader().numDocs());
+    }
+
+    @Test
+    public void shouldKeepAcquiredReaderOpenUntilReleased() throws Exception {
+        IndexSearcher searcher = delegator.acquireSearcher();
+        IndexReader reader = searcher.getIndexReader();
+        addDocument("liver");
+        delegator.refreshSearcher();
+        assertEquals(1, reader.getRefCount());
+        assertEquals(1, searcher.search(new MatchAllDocsQuery(), 10).totalHits);
+        delegator.releaseSearcher(searcher);
+        assertEquals(0, reader.getRefCount());
+    }
+
+    private void addDocument(String text) throws IOException {
+        Document doc = new Document();
+        doc.add(new TextField(IndexField.DISPLAY_NAME, text, Store.YES));
+        IndexWriter writer = delegator.getWriter();
+        writer.addDocument(doc);
+        writer.commit();
+    }
+}
@@ -0,0 +1,151 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.find.OWLEntityFinder;
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchResult;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazySearchResultListTest {
+
+    private static final String NAMESPACE = "http://example.org/";
+
+    private static final int DOCUMENT_COUNT = 100; // two pages
+
+    private static final int PAGE_SIZE = 64;
+
+    private RAMDirectory directory;
+
+    private DirectoryReader reader;
+
+    private LazySearchResultList resultList;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                String name = String.format("entity%03d", i);
+                Document doc = new Document();
+                doc.add(new StringField(IndexField.ENTITY_IRI, NAMESPACE + name, Store.YES));
+                doc.add(new StringField(IndexField.DISPLAY_NAME, name, Store.YES));
+                doc.add(new SortedDocValuesField(IndexField.ENTITY_IRI, new BytesRef(NAMESPACE + name)));
+                doc.add(new SortedDocValuesField(IndexField.DISPLAY_NAME_SORT, new BytesRef(name)));
+                writer.addDocument(doc);
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        BitSet hits = new BitSet();
+        hits.set(0, DOCUMENT_COUNT);
+        Map<SearchCategory, BitSet> categoryHits = new EnumMap<>(SearchCategory.class);
+        categoryHits.put(SearchCategory.DISPLAY_NAME, hits);
+        resultList = new SearchResultFactory(new IndexSearcher(reader), createEntityResolver())
+                .createSearchResults(categoryHits);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        resultList.release();
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void shouldMaterializeOnePageOnRequest() {
+        assertEquals(DOCUMENT_COUNT, resultList.size());
+        assertEquals(0, resultList.getMaterializedCount());
+        assertEquals(NAMESPACE + "entity005", ((OWLEntity) resultList.getSubject(5)).getIRI().toString());
+        assertEquals(0, resultList.getMaterializedCount());
+        SearchResult result = resultList.get(5);
+        assertEquals(PAGE_SIZE, resultList.getMaterializedCount());
+        assertEquals("entity005", result.getSearchString()); // from the stored field
+        assertEquals("rendering of entity005", result.getSubjectRendering());
+    }
+
+    @Test
+    public void shouldPrefetchNextPage() {
+        resultList.setPrefetcher(Runnable::run);
+        resultList.get(0);
+        assertEquals(DOCUMENT_COUNT, resultList.getMaterializedCount());
+    }
+
+    @Test
+    public void shouldHoldReaderUntilLastHolderReleases() {
+        assertEquals(2, reader.getRefCount());
+        assertTrue(resultList.retain());
+        resultList.release();
+        assertEquals(2, reader.getRefCount());
+        resultList.release();
+        assertEquals(1, reader.getRefCount());
+        assertFalse(resultList.retain());
+    }
+
+    @Test
+    public void shouldReleaseReaderOnceMaterialized() {
+        resultList.get(0);
+        assertEquals(2, reader.getRefCount());
+        resultList.get(PAGE_SIZE);
+        assertEquals(DOCUMENT_COUNT, resultList.getMaterializedCount());
+        assertEquals(1, reader.getRefCount());
+    }
+
+    @Test
+    public void shouldCreateResultsWithoutReaderAfterRelease() {
+        resultList.release();
+        assertEquals(1, reader.getRefCount());
+        SearchResult result = resultList.get(5);
+        assertEquals("rendering of entity005", result.getSearchString()); // the subject only
+        assertEquals(SearchCategory.DISPLAY_NAME, result.getCategory());
+    }
+
+    /*
+     * Resolves every IRI to a class, rendered from its IRI
+     */
+    private static EntityResolver createEntityResolver() {
+        OWLDataFactoryImpl dataFactory = new OWLDataFactoryImpl();
+        OWLEntityFinder entityFinder = (OWLEntityFinder) Proxy.newProxyInstance(OWLEntityFinder.class.getClassLoader(),
+                new Class<?>[] { OWLEntityFinder.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getEntities") && args[0] instanceof IRI) {
+                        return Collections.singleton(dataFactory.getOWLClass((IRI) args[0]));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        OWLModelManager modelManager = (OWLModelManager) Proxy.newProxyInstance(OWLModelManager.class.getClassLoader(),
+                new Class<?>[] { OWLModelManager.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getRendering")) {
+                        return "rendering of " + ((OWLEntity) args[0]).getIRI().getShortForm();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new EntityResolver(entityFinder, new RenderingCache(modelManager));
+    }
+}
@@ -0,0 +1,177 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchResultHandler;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.ExitableDirectoryReader.ExitingReaderException;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.util.ProgressMonitor;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LuceneSearcherTest {
+
+    private static final int DOCUMENT_COUNT = 100;
+
+    private RAMDirectory directory;
+
+    private DirectoryReader reader;
+
+    private LRUQueryCache queryCache;
+
+    private TestSearcher searcher;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                Document doc = new Document();
+                doc.add(new StringField(IndexField.DISPLAY_NAME, "entity" + i, Store.NO));
+                doc.add(new StringField(IndexField.DOC_KIND, (i % 2 == 0) ? DocKind.ENTITY : DocKind.ANNOTATION, Store.NO));
+                writer.addDocument(doc);
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        queryCache = new LRUQueryCache(16, 1024 * 1024);
+        IndexSearcher indexSearcher = new IndexSearcher(reader);
+        indexSearcher.setQueryCache(queryCache);
+        indexSearcher.setQueryCachingPolicy(SearchFilters.createCachingPolicy());
+        searcher = new TestSearcher(indexSearcher);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void shouldUseCachedFiltersWithinBudget() throws Exception {
+        Query filter = SearchFilters.docKind(DocKind.ENTITY);
+        searcher.getIndexSearcher().search(new ConstantScoreQuery(filter), new TotalHitCountCollector()); // warm up
+        long hitCount = queryCache.getHitCount();
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(new WildcardQuery(new Term(IndexField.DISPLAY_NAME, "entity*")), Occur.MUST);
+        builder.add(filter, Occur.FILTER);
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        searcher.search(searcher.getIndexSearcher(), builder.build(), collector, new SearchBudget(() -> false, 1000));
+        assertEquals(DOCUMENT_COUNT / 2, collector.getTotalHits());
+        assertTrue(queryCache.getHitCount() > hitCount);
+    }
+
+    @Test
+    public void shouldStopSupersededSearchDuringTermEnumeration() throws Exception {
+        AtomicInteger checkCount = new AtomicInteger();
+        SearchBudget budget = new SearchBudget(() -> checkCount.incrementAndGet() > 10, 0); // no time limit
+        assertTrue(budget.isTimeoutEnabled());
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        try {
+            searcher.search(searcher.getIndexSearcher(), new WildcardQuery(new Term(IndexField.DISPLAY_NAME, "entity*")),
+                    collector, budget);
+            fail("The superseded search should stop");
+        }
+        catch (ExitingReaderException e) {
+            // expected
+        }
+        assertTrue(budget.isSuperseded());
+        assertFalse(budget.isExpired());
+        assertEquals(0, collector.getTotalHits());
+    }
+
+    @Test
+    public void shouldSearchWithoutBudgetChecks() throws Exception {
+        assertFalse(SearchBudget.UNLIMITED.isTimeoutEnabled());
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        searcher.search(searcher.getIndexSearcher(), new WildcardQuery(new Term(IndexField.DISPLAY_NAME, "entity*")),
+                collector, SearchBudget.UNLIMITED);
+        assertEquals(DOCUMENT_COUNT, collector.getTotalHits());
+        assertFalse(SearchBudget.UNLIMITED.isExhausted());
+    }
+
+    private static class TestSearcher extends LuceneSearcher {
+
+        private final IndexSearcher indexSearcher;
+
+        private TestSearcher(IndexSearcher indexSearcher) {
+            this.indexSearcher = indexSearcher;
+        }
+
+        @Override
+        protected AbstractLuceneIndexer getIndexer() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected IndexSearcher getIndexSearcher() {
+            return indexSearcher;
+        }
+
+        @Override
+        protected IndexSearcher acquireIndexSearcher() {
+            indexSearcher.getIndexReader().incRef();
+            return indexSearcher;
+        }
+
+        @Override
+        public boolean hasIndexField(String field) {
+            return true;
+        }
+
+        @Override
+        public void initialise() {
+            // NO-OP
+        }
+
+        @Override
+        public void dispose() {
+            // NO-OP
+        }
+
+        @Override
+        public void addProgressMonitor(ProgressMonitor pm) {
+            // NO-OP
+        }
+
+        @Override
+        public boolean isSearchType(SearchCategory category) {
+            return true;
+        }
+
+        @Override
+        public void setCategories(Collection<SearchCategory> categories) {
+            // NO-OP
+        }
+
+        @Override
+        public void performSearch(String searchString, SearchResultHandler searchResultHandler) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.search.lucene.analyzer.LabelAnalyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.Query;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Compares the query construction of {@link LuceneUtils#createQuery(String, String)}, which
+ * creates a query parser and an analyzer on every call, with {@link QueryCompiler#compile(String,
+ * String)}, once with a new compiler for every query (cold) and once with a shared compiler
+ * whose templates and queries are cached. The search strings are the keystrokes of typing a
+ * search, each compiled for the fields of a search. Run the main method with the test
+ * classpath; it prints the time and the allocated bytes per query of each method.
+ */
+public class QueryCompilerBenchmark {
+
+    private static final List<String> SEARCH_STRINGS = Arrays.asList("h*", "he*", "hea*", "hear*", "heart*",
+            "+heart +d*", "+heart +di*", "+heart +dis*", "+heart +dise*", "+heart +disea*", "+heart +diseas*",
+            "+heart +disease*", "\"heart disease\"", "+heart -valve", "+heart* +disease -valve*");
+
+    private static final List<String> FIELDS = Arrays.asList(IndexField.DISPLAY_NAME, IndexField.ANNOTATION_TEXT,
+            IndexField.ENTITY_IRI);
+
+    private static final int WARMUP_ROUNDS = 2000;
+
+    private static final int MEASURED_ROUNDS = 5000;
+
+    private static volatile Query sink; // keeps the queries from being optimized away
+
+    public static void main(String[] args) {
+        Analyzer analyzer = LabelAnalyzer.createQueryAnalyzer();
+        QueryCompiler cachingCompiler = new QueryCompiler(analyzer);
+        run("LuceneUtils.createQuery", LuceneUtils::createQuery);
+        run("QueryCompiler.compile (cold)", (field, searchString) -> new QueryCompiler(analyzer).compile(field, searchString));
+        run("QueryCompiler.compile (cached)", cachingCompiler::compile);
+        System.out.println(cachingCompiler.getStatistics());
+    }
+
+    private static void run(String name, BiFunction<String, String, Query> queryFactory) {
+        rounds(WARMUP_ROUNDS, queryFactory);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        rounds(MEASURED_ROUNDS, queryFactory);
+        long time = System.nanoTime() - startTime;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+        long queryCount = (long) MEASURED_ROUNDS * SEARCH_STRINGS.size() * FIELDS.size();
+        System.out.println(String.format("%-32s %,10d ns/query %,10d bytes/query", name, time / queryCount,
+                bytes / queryCount));
+    }
+
+    private static void rounds(int count, BiFunction<String, String, Query> queryFactory) {
+        for (int i = 0; i < count; i++) {
+            for (String searchString : SEARCH_STRINGS) {
+                for (String field : FIELDS) {
+                    sink = queryFactory.apply(field, searchString);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.search.lucene.analyzer.LabelAnalyzer;
+import org.protege.editor.search.lucene.analyzer.TrigramAnalyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class QueryCompilerTest {
+
+    private static final String OBO_NAMESPACE = "http://purl.obolibrary.org/obo/GO_";
+
+    private final Set<String> indexFields = new HashSet<>();
+
+    private QueryCompiler compiler;
+
+    @Before
+    public void setUp() {
+        indexFields.clear();
+        Analyzer analyzer = new PerFieldAnalyzerWrapper(LabelAnalyzer.createQueryAnalyzer(),
+                Collections.singletonMap(IndexField.DISPLAY_NAME_TRIGRAM, new TrigramAnalyzer()));
+        compiler = new QueryCompiler(analyzer, indexFields::contains,
+                prefixName -> "GO".equals(prefixName) ? Optional.of(OBO_NAMESPACE) : Optional.empty());
+    }
+
+    @Test
+    public void shouldCompileWordIntoLowercasedTermQuery() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "Heart");
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME, "heart")), query);
+    }
+
+    @Test
+    public void shouldCompileRequiredAndProhibitedWords() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "+heart -disease");
+        List<BooleanClause> clauses = ((BooleanQuery) query).clauses();
+        assertEquals(2, clauses.size());
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME, "heart")), clauses.get(0).getQuery());
+        assertEquals(Occur.MUST, clauses.get(0).getOccur());
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME, "disease")), clauses.get(1).getQuery());
+        assertEquals(Occur.MUST_NOT, clauses.get(1).getOccur());
+    }
+
+    @Test
+    public void shouldCompileQuotedWordsIntoPhraseQuery() {
+        PhraseQuery query = (PhraseQuery) compiler.compile(IndexField.DISPLAY_NAME, "\"Heart Disease\"");
+        assertArrayEquals(new Term[] {
+                new Term(IndexField.DISPLAY_NAME, "heart"),
+                new Term(IndexField.DISPLAY_NAME, "disease") }, query.getTerms());
+        assertArrayEquals(new int[] { 0, 1 }, query.getPositions());
+    }
+
+    @Test
+    public void shouldCompilePrefixIntoPrefixQueryWithoutPrefixField() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "Hea*");
+        assertEquals(new PrefixQuery(new Term(IndexField.DISPLAY_NAME, "hea")), query);
+    }
+
+    @Test
+    public void shouldCompilePrefixIntoTermLookupWithPrefixField() {
+        indexFields.add(IndexField.DISPLAY_NAME_PREFIX);
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "Hea*");
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME_PREFIX, "hea")), query);
+    }
+
+    @Test
+    public void shouldCompileSuffixIntoReversedPrefixQuery() {
+        indexFields.add(IndexField.DISPLAY_NAME_REVERSED);
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "*itis");
+        assertEquals(new PrefixQuery(new Term(IndexField.DISPLAY_NAME_REVERSED, "siti")), query);
+    }
+
+    @Test
+    public void shouldCompileInfixIntoTrigramPhraseQuery() {
+        indexFields.add(IndexField.DISPLAY_NAME_TRIGRAM);
+        PhraseQuery query = (PhraseQuery) compiler.compile(IndexField.DISPLAY_NAME, "*card*");
+        assertArrayEquals(new Term[] {
+                new Term(IndexField.DISPLAY_NAME_TRIGRAM, "car"),
+                new Term(IndexField.DISPLAY_NAME_TRIGRAM, "ard") }, query.getTerms());
+        assertArrayEquals(new int[] { 0, 1 }, query.getPositions());
+    }
+
+    @Test
+    public void shouldCompileLeadingWildcardWithEnoughCharactersIntoWildcardQuery() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "*card*");
+        assertEquals(new WildcardQuery(new Term(IndexField.DISPLAY_NAME, "*card*")), query);
+    }
+
+    @Test
+    public void shouldRejectLeadingWildcardWithTooFewCharacters() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "*a?");
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME, "")), query);
+    }
+
+    @Test
+    public void shouldCompileCaseSensitiveSearchAgainstCasedField() {
+        indexFields.add(IndexField.DISPLAY_NAME_CASED);
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "Hea*", true);
+        assertEquals(new PrefixQuery(new Term(IndexField.DISPLAY_NAME_CASED, "Hea")), query);
+    }
+
+    @Test
+    public void shouldFallBackToLowercasedFieldWithoutCasedField() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "Hea*", true);
+        assertEquals(new PrefixQuery(new Term(IndexField.DISPLAY_NAME, "hea")), query);
+    }
+
+    @Test
+    public void shouldReturnCachedQuery() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "+heart +dis*");
+        assertSame(query, compiler.compile(IndexField.DISPLAY_NAME, "+heart +dis*"));
+    }
+
+    @Test
+    public void shouldReturnEmptyTermQueryWithoutSearchableWords() {
+        Query query = compiler.compile(IndexField.DISPLAY_NAME, "the");
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME, "")), query);
+    }
+
+    @Test
+    public void shouldMatchWholeCompactKeywordIgnoringWhitespace() {
+        indexFields.add(IndexField.DISPLAY_NAME_COMPACT);
+        Optional<Query> query = compiler.compileIgnoringWhitespace(IndexField.DISPLAY_NAME, " Heart  Disease ", true);
+        assertEquals(new TermQuery(new Term(IndexField.DISPLAY_NAME_COMPACT, "heartdisease")), query.get());
+    }
+
+    @Test
+    public void shouldMatchCompactKeywordAnywhereIgnoringWhitespace() {
+        indexFields.add(IndexField.DISPLAY_NAME_COMPACT);
+        Optional<Query> query = compiler.compileIgnoringWhitespace(IndexField.DISPLAY_NAME, "heart dis", false);
+        assertEquals(new WildcardQuery(new Term(IndexField.DISPLAY_NAME_COMPACT, "*heartdis*")), query.get());
+    }
+
+    @Test
+    public void shouldEscapeWildcardsIgnoringWhitespace() {
+        indexFields.add(IndexField.DISPLAY_NAME_COMPACT);
+        Optional<Query> query = compiler.compileIgnoringWhitespace(IndexField.DISPLAY_NAME, "a*b", false);
+        assertEquals(new WildcardQuery(new Term(IndexField.DISPLAY_NAME_COMPACT, "*a\\*b*")), query.get());
+    }
+
+    @Test
+    public void shouldNotIgnoreWhitespaceWithoutCompactField() {
+        assertFalse(compiler.compileIgnoringWhitespace(IndexField.DISPLAY_NAME, "heart dis", false).isPresent());
+    }
+
+    @Test
+    public void shouldCompileFullIriIntoKeyLookup() {
+        indexFields.add(IndexField.ENTITY_IRI_KEY);
+        Optional<Query> query = compiler.compileIri(IndexField.ENTITY_IRI, "<http://example.org/onto#Heart>");
+        assertEquals(new TermQuery(new Term(IndexField.ENTITY_IRI_KEY, "http://example.org/onto#Heart")), query.get());
+    }
+
+    @Test
+    public void shouldExpandCurieWithKnownPrefix() {
+        indexFields.add(IndexField.ENTITY_IRI_KEY);
+        Optional<Query> query = compiler.compileIri(IndexField.ENTITY_IRI, "GO:0008150");
+        assertEquals(new TermQuery(new Term(IndexField.ENTITY_IRI_KEY, OBO_NAMESPACE + "0008150")), query.get());
+    }
+
+    @Test
+    public void shouldMatchLocalNamesOfCurieWithUnknownPrefix() {
+        indexFields.add(IndexField.ENTITY_IRI);
+        BooleanQuery query = (BooleanQuery) compiler.compileIri(IndexField.ENTITY_IRI, "UBERON:0000948").get();
+        Set<Query> clauseQueries = new HashSet<>();
+        for (BooleanClause clause : query.clauses()) {
+            assertEquals(Occur.SHOULD, clause.getOccur());
+            clauseQueries.add(clause.getQuery());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(
+                new TermQuery(new Term(IndexField.ENTITY_IRI, "0000948")),
+                new TermQuery(new Term(IndexField.ENTITY_IRI, "uberon_0000948")))), clauseQueries);
+    }
+
+    @Test
+    public void shouldNotCompileTextAsIri() {
+        indexFields.add(IndexField.ENTITY_IRI);
+        indexFields.add(IndexField.ENTITY_IRI_KEY);
+        assertFalse(compiler.compileIri(IndexField.ENTITY_IRI, "heart disease").isPresent());
+        assertFalse(compiler.compileIri(IndexField.ENTITY_IRI, "heart").isPresent());
+    }
+
+    @Test
+    public void shouldCompileRegexAgainstKeywordField() {
+        indexFields.add(IndexField.DISPLAY_NAME_KEYWORD);
+        Query query = compiler.compileRegex(IndexField.DISPLAY_NAME, "Heart.*");
+        assertEquals(new RegexpQuery(new Term(IndexField.DISPLAY_NAME_KEYWORD, "heart.*")), query);
+    }
+
+    @Test
+    public void shouldCompileRegexAgainstFieldWithoutKeywordField() {
+        Query query = compiler.compileRegex(IndexField.DISPLAY_NAME, "hea.t");
+        assertEquals(new RegexpQuery(new Term(IndexField.DISPLAY_NAME, "hea.t")), query);
+    }
+
+    @Test
+    public void shouldRejectInvalidAndTooLongRegex() {
+        Query emptyQuery = new TermQuery(new Term(IndexField.DISPLAY_NAME, ""));
+        assertEquals(emptyQuery, compiler.compileRegex(IndexField.DISPLAY_NAME, "(heart"));
+        String longRegex = String.join("", Collections.nCopies(300, "a"));
+        assertEquals(emptyQuery, compiler.compileRegex(IndexField.DISPLAY_NAME, longRegex));
+    }
+}
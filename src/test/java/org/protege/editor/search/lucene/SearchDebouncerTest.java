@@ -0,0 +1,80 @@
+package org.protege.editor.search.lucene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchDebouncerTest {
+
+    private SearchDebouncer debouncer;
+
+    @Before
+    public void setUp() {
+        debouncer = new SearchDebouncer();
+    }
+
+    @After
+    public void tearDown() {
+        debouncer.shutdown();
+    }
+
+    @Test
+    public void shouldStartFirstSearchAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        assertEquals(0, debouncer.submit(started::countDown));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldDelayAndReplaceSearchesOfFastKeystrokes() throws Exception {
+        CountDownLatch first = new CountDownLatch(1);
+        debouncer.submit(first::countDown);
+        assertTrue(first.await(1, TimeUnit.SECONDS));
+
+        AtomicBoolean replacedRan = new AtomicBoolean(false);
+        CountDownLatch latest = new CountDownLatch(1);
+        AtomicLong latestStartTime = new AtomicLong();
+        long delay = debouncer.submit(() -> replacedRan.set(true));
+        assertEquals(SearchDebouncer.MIN_DELAY, delay);
+        long submitTime = System.nanoTime();
+        debouncer.submit(() -> {
+            latestStartTime.set(System.nanoTime());
+            latest.countDown();
+        });
+
+        assertTrue(latest.await(1, TimeUnit.SECONDS));
+        assertFalse(replacedRan.get());
+        long waited = TimeUnit.NANOSECONDS.toMillis(latestStartTime.get() - submitTime);
+        assertTrue("waited " + waited + " ms", waited >= SearchDebouncer.MIN_DELAY - 5);
+    }
+
+    @Test
+    public void shouldAdaptDelayToLatency() {
+        assertEquals(SearchDebouncer.MIN_DELAY, debouncer.getDelay());
+        for (int i = 0; i < 20; i++) {
+            debouncer.recordLatency(100);
+        }
+        assertEquals(100, debouncer.getDelay());
+    }
+
+    @Test
+    public void shouldBoundDelay() {
+        for (int i = 0; i < 20; i++) {
+            debouncer.recordLatency(10000);
+        }
+        assertEquals(SearchDebouncer.MAX_DELAY, debouncer.getDelay());
+        for (int i = 0; i < 50; i++) {
+            debouncer.recordLatency(0);
+        }
+        assertEquals(SearchDebouncer.MIN_DELAY, debouncer.getDelay());
+    }
+}
@@ -0,0 +1,141 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchRefinementTest {
+
+    private static final long READER_VERSION = 7;
+
+    private SearchRefinement refinement;
+
+    @Before
+    public void setUp() {
+        refinement = new SearchRefinement();
+    }
+
+    @Test
+    public void shouldNarrowExtendedPrefix() {
+        assertTrue(SearchRefinement.narrows(createKey("+neur*"), createKey("+neuro*")));
+    }
+
+    @Test
+    public void shouldNarrowAddedRequiredOrProhibitedClause() {
+        assertTrue(SearchRefinement.narrows(createKey("+neur*"), createKey("+neur* +cell*")));
+        assertTrue(SearchRefinement.narrows(createKey("+neur*"), createKey("+neur* -glia")));
+    }
+
+    @Test
+    public void shouldNotNarrowShorterPrefix() {
+        assertFalse(SearchRefinement.narrows(createKey("+neuro*"), createKey("+neur*")));
+    }
+
+    @Test
+    public void shouldNotNarrowOptionalClause() {
+        assertFalse(SearchRefinement.narrows(createKey("+neur*"), createKey("+neuro* cell")));
+    }
+
+    @Test
+    public void shouldNotNarrowPrefixWithSyntax() {
+        assertFalse(SearchRefinement.narrows(createKey("+neur*"), createKey("+neur?n*")));
+    }
+
+    @Test
+    public void shouldNotNarrowSameSearch() {
+        assertFalse(SearchRefinement.narrows(createKey("+neur*"), createKey("+neur*")));
+    }
+
+    @Test
+    public void shouldNotNarrowAcrossReadersOrModes() {
+        assertFalse(SearchRefinement.narrows(createKey("+neur*"), createKey("+neuro*", "-----", READER_VERSION + 1)));
+        assertFalse(SearchRefinement.narrows(createKey("+neur*"), createKey("+neuro*", "C----", READER_VERSION)));
+        assertFalse(SearchRefinement.narrows(createKey("+neur*", "R----", READER_VERSION),
+                createKey("+neuro*", "R----", READER_VERSION)));
+    }
+
+    @Test
+    public void shouldGiveFiltersOfPreviousHits() {
+        BitSet hits = new BitSet();
+        hits.set(3);
+        hits.set(5);
+        refinement.update(createKey("+neur*"), Collections.singletonList(hits));
+        Optional<List<HitSetFilter>> filters = refinement.getFilters(createKey("+neuro*"));
+        assertTrue(filters.isPresent());
+        assertEquals(1, filters.get().size());
+        assertEquals(2, filters.get().get(0).size());
+        assertFalse(refinement.getFilters(createKey("+glia*")).isPresent());
+        refinement.clear();
+        assertFalse(refinement.getFilters(createKey("+neuro*")).isPresent());
+    }
+
+    @Test
+    public void shouldMatchHitsAcrossSegments() throws Exception {
+        try (RAMDirectory directory = new RAMDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+                for (int i = 0; i < 6; i++) {
+                    Document doc = new Document();
+                    doc.add(new StringField(IndexField.DISPLAY_NAME, "doc" + i, Store.YES));
+                    writer.addDocument(doc);
+                    if (i % 2 == 1) {
+                        writer.commit(); // three segments of two documents
+                    }
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertEquals(3, reader.leaves().size());
+                BitSet hits = new BitSet();
+                hits.set(1);
+                hits.set(2);
+                hits.set(5);
+                BooleanQuery.Builder builder = new BooleanQuery.Builder();
+                builder.add(new MatchAllDocsQuery(), Occur.MUST);
+                builder.add(new HitSetFilter(hits), Occur.FILTER);
+                TopDocs topDocs = new IndexSearcher(reader).search(builder.build(), 10);
+                int[] docIds = new int[topDocs.scoreDocs.length];
+                for (int i = 0; i < docIds.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    docIds[i] = scoreDoc.doc;
+                }
+                Arrays.sort(docIds);
+                assertArrayEquals(new int[] { 1, 2, 5 }, docIds);
+            }
+        }
+    }
+
+    private static SearchResultCache.Key createKey(String syntax) {
+        return createKey(syntax, "-----", READER_VERSION);
+    }
+
+    private static SearchResultCache.Key createKey(String syntax, String searchMode, long readerVersion) {
+        return new SearchResultCache.Key(Collections.singletonList("=" + syntax),
+                EnumSet.of(SearchCategory.DISPLAY_NAME), searchMode, readerVersion);
+    }
+}
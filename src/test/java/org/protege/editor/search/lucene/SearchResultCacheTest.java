@@ -0,0 +1,101 @@
+package org.protege.editor.search.lucene;
+
+import org.protege.editor.owl.model.search.SearchCategory;
+import org.protege.editor.owl.model.search.SearchResult;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SearchResultCacheTest {
+
+    private static final long READER_VERSION = 7;
+
+    /*
+     * Room for two entries of two results each, see the size estimates of the cache
+     */
+    private static final long MAX_MEMORY = 2 * (256 + 2 * 512);
+
+    private SearchResultCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new SearchResultCache(MAX_MEMORY);
+        cache.setReaderVersion(READER_VERSION);
+    }
+
+    @Test
+    public void shouldReturnCachedResults() {
+        Collection<SearchResult> results = createResults(2);
+        cache.put(createKey("heart", READER_VERSION), results);
+        assertSame(results, cache.get(createKey("heart", READER_VERSION)).get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldMissUnknownKey() {
+        cache.put(createKey("heart", READER_VERSION), createResults(2));
+        assertFalse(cache.get(createKey("liver", READER_VERSION)).isPresent());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldIgnoreResultsOfOlderReader() {
+        cache.put(createKey("heart", READER_VERSION - 1), createResults(2));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldDropEntriesWhenReaderChanges() {
+        cache.put(createKey("heart", READER_VERSION), createResults(2));
+        cache.setReaderVersion(READER_VERSION + 1);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedMemory());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        cache.put(createKey("heart", READER_VERSION), createResults(2));
+        cache.put(createKey("liver", READER_VERSION), createResults(2));
+        cache.get(createKey("heart", READER_VERSION)); // the liver entry is now the eldest
+        cache.put(createKey("lung", READER_VERSION), createResults(2));
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(createKey("heart", READER_VERSION)).isPresent());
+        assertFalse(cache.get(createKey("liver", READER_VERSION)).isPresent());
+        assertTrue(cache.get(createKey("lung", READER_VERSION)).isPresent());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldNotCacheResultsLargerThanBudget() {
+        cache.put(createKey("heart", READER_VERSION), createResults(10));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldTellKeysApartBySearchMode() {
+        SearchResultCache.Key caseSensitive = new SearchResultCache.Key(Collections.singletonList("=heart"),
+                EnumSet.of(SearchCategory.DISPLAY_NAME), "C----", READER_VERSION);
+        assertNotEquals(createKey("heart", READER_VERSION), caseSensitive);
+        assertEquals(createKey("heart", READER_VERSION), createKey("heart", READER_VERSION));
+    }
+
+    private static SearchResultCache.Key createKey(String searchString, long readerVersion) {
+        return new SearchResultCache.Key(Collections.singletonList("=" + searchString),
+                EnumSet.of(SearchCategory.DISPLAY_NAME), "-----", readerVersion);
+    }
+
+    private static List<SearchResult> createResults(int size) {
+        return Collections.nCopies(size, null);
+    }
+}
@@ -0,0 +1,133 @@
+package org.protege.editor.search.lucene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchTaskSchedulerTest {
+
+    private static final long TIMEOUT = 5; // in seconds
+
+    private SearchTaskScheduler scheduler;
+
+    private List<String> finishedTasks;
+
+    @Before
+    public void setUp() {
+        scheduler = new SearchTaskScheduler();
+        finishedTasks = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldDropWaitingSearchesForNewSearch() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submitSearch(() -> {
+            started.countDown();
+            await(release);
+            finishedTasks.add("first");
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+        scheduler.submitSearch(task("second"));
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitSearch(() -> {
+            finishedTasks.add("third");
+            done.countDown();
+        });
+        release.countDown();
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(2, finishedTasks.size());
+        assertTrue(finishedTasks.contains("first"));
+        assertTrue(finishedTasks.contains("third"));
+        assertEquals(1, scheduler.getSearchLane().getDroppedCount());
+    }
+
+    @Test
+    public void shouldRunSearchWhileBuildIsRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submitBuild(blockingTask("build", release));
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitSearch(done::countDown);
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(scheduler.isBuildPending());
+        release.countDown();
+        scheduler.awaitBuild();
+        assertFalse(scheduler.isBuildPending());
+        assertTrue(finishedTasks.contains("build"));
+    }
+
+    @Test
+    public void shouldDropUpdatesWhileBuildIsWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submitBuild(blockingTask("first build", release));
+        scheduler.submitBuild(task("second build"));
+        scheduler.submitUpdate(task("update"));
+        release.countDown();
+        scheduler.awaitBuild();
+        assertFalse(finishedTasks.contains("update"));
+        assertEquals(1, scheduler.getUpdateLane().getDroppedCount());
+    }
+
+    @Test
+    public void shouldNotRunUpdateAndBuildTogether() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submitUpdate(() -> {
+            started.countDown();
+            await(release);
+            finishedTasks.add("update");
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+        scheduler.submitBuild(task("build"));
+        Thread.sleep(100);
+        assertTrue(finishedTasks.isEmpty()); // the build waits for the index write lock
+        release.countDown();
+        scheduler.awaitBuild();
+        assertEquals("update", finishedTasks.get(0));
+        assertEquals("build", finishedTasks.get(1));
+    }
+
+    @Test
+    public void shouldKeepLaneRunningAfterFailedTask() throws Exception {
+        scheduler.submitUpdate(() -> {
+            throw new IllegalStateException("expected");
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitUpdate(done::countDown);
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    private Runnable task(String name) {
+        return () -> finishedTasks.add(name);
+    }
+
+    private Runnable blockingTask(String name, CountDownLatch release) {
+        return () -> {
+            await(release);
+            finishedTasks.add(name);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+final class AnalyzerTestUtils {
+
+    private AnalyzerTestUtils() {
+        // NO-OP
+    }
+
+    /**
+     * Gets the tokens of the text, each followed by its position, e.g., "heart@0".
+     */
+    static List<String> analyze(Analyzer analyzer, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("field", text)) {
+            CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+            stream.reset();
+            int position = -1;
+            while (stream.incrementToken()) {
+                position += posIncAtt.getPositionIncrement();
+                tokens.add(termAtt.toString() + "@" + position);
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+}
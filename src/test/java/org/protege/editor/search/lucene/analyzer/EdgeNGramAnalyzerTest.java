@@ -0,0 +1,53 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EdgeNGramAnalyzerTest {
+
+    @Test
+    public void shouldProducePrefixesOfWholeWordAndParts() throws Exception {
+        Set<String> grams = getGrams("cell_part_of");
+        assertTrue(grams.contains("cel"));
+        assertTrue(grams.contains("cell"));
+        assertTrue(grams.contains("cell_par"));
+        assertTrue(grams.contains("par"));
+        assertTrue(grams.contains("part"));
+    }
+
+    @Test
+    public void shouldBoundGramSizes() throws Exception {
+        EdgeNGramAnalyzer analyzer = new EdgeNGramAnalyzer();
+        for (String gram : getGrams("cell_part_of")) {
+            assertTrue(gram, gram.length() >= analyzer.getMinGramSize());
+            assertTrue(gram, gram.length() <= analyzer.getMaxGramSize());
+        }
+        Set<String> grams = getGrams("cell_part_of");
+        assertFalse(grams.contains("ce")); // shorter than the minimum
+        assertFalse(grams.contains("of")); // a part shorter than the minimum
+        assertFalse(grams.contains("cell_part_of")); // longer than the maximum
+    }
+
+    @Test
+    public void shouldLowercaseAfterSplitting() throws Exception {
+        Set<String> grams = getGrams("hasParticipant");
+        assertTrue(grams.contains("has"));
+        assertTrue(grams.contains("partic"));
+        assertFalse(grams.contains("Partic"));
+    }
+
+    private static Set<String> getGrams(String text) throws Exception {
+        Set<String> grams = new HashSet<>();
+        List<String> tokens = AnalyzerTestUtils.analyze(new EdgeNGramAnalyzer(), text);
+        for (String token : tokens) {
+            grams.add(token.substring(0, token.lastIndexOf('@')));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,34 @@
+package org.protege.editor.search.lucene.analyzer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class LabelAnalyzerTest {
+
+    @Test
+    public void shouldSplitIdentifierAtOriginalPosition() throws Exception {
+        assertEquals(Arrays.asList("cell_part_of@0", "cell@0", "part@0"), // "of" is a stop word
+                AnalyzerTestUtils.analyze(new LabelAnalyzer(), "cell_part_of"));
+    }
+
+    @Test
+    public void shouldKeepPhrasePositionsAfterSplitWord() throws Exception {
+        assertEquals(Arrays.asList("cell_part_of@0", "cell@0", "part@0", "nucleus@1"),
+                AnalyzerTestUtils.analyze(new LabelAnalyzer(), "cell_part_of nucleus"));
+    }
+
+    @Test
+    public void shouldSplitOnCaseChange() throws Exception {
+        assertEquals(Arrays.asList("hasparticipant@0", "has@0", "participant@0"),
+                AnalyzerTestUtils.analyze(new LabelAnalyzer(), "hasParticipant"));
+    }
+
+    @Test
+    public void shouldKeepIdentifierWholeInQueries() throws Exception {
+        assertEquals(Arrays.asList("cell_part_of@0"),
+                AnalyzerTestUtils.analyze(LabelAnalyzer.createQueryAnalyzer(), "cell_part_of"));
+    }
+}